@@ -0,0 +1,180 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx.api.events;
+
+import net.visualillusionsent.vibotx.VIBotX;
+import org.pircbotx.hooks.Event;
+import org.pircbotx.hooks.managers.GenericListenerManager;
+import org.pircbotx.hooks.managers.ListenerManager;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * Dispatch Benchmark
+ * <p/>
+ * Compares calling {@link EventMethod}s through the original {@link Method#invoke} dispatcher, a {@link MethodHandle}
+ * held in a field, the {@link ReflectiveEventDispatch} fallback and the {@link GeneratedEventDispatch} classes. Four
+ * listener classes share each dispatch site, as many plugins would.
+ * <p/>
+ * Run with {@code mvn -Pbench test-compile exec:java} or {@code exec:java -Dexec.args="<rounds> <calls per round> [variant]"}.
+ * The variants share one dispatch loop, so later ones run against a polluted type profile; name a single variant to
+ * measure it in a fresh JVM.
+ *
+ * @author Jason (darkdiplomat)
+ */
+public final class DispatchBenchmark {
+    private static final int LISTENERS = 4;
+    private static volatile long sink;
+
+    public static void main(String[] args) throws Exception {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 15;
+        int calls = args.length > 1 ? Integer.parseInt(args[1]) : 5000000;
+        String only = args.length > 2 ? args[2] : null;
+
+        EventListener[] listeners = {new First(), new Second(), new Third(), new Fourth()};
+        Method[] methods = new Method[LISTENERS];
+        EventDispatch[] baseline = new EventDispatch[LISTENERS];
+        EventDispatch[] handles = new EventDispatch[LISTENERS];
+        EventDispatch[] fallback = new EventDispatch[LISTENERS];
+        EventDispatch[] generated = new EventDispatch[LISTENERS];
+        for (int index = 0; index < LISTENERS; index++) {
+            methods[index] = listeners[index].getClass().getMethod("onEvent", BenchEvent.class);
+            baseline[index] = new BaselineDispatch(methods[index]);
+            handles[index] = new HandleDispatch(MethodHandles.lookup().unreflect(methods[index]));
+            fallback[index] = ReflectiveEventDispatch.forMethod(methods[index]);
+            generated[index] = GeneratedEventDispatch.forMethod(methods[index]);
+            if (!(generated[index] instanceof GeneratedEventDispatch)) {
+                throw new IllegalStateException("Listener " + index + " was not given a generated dispatcher");
+            }
+        }
+        BenchEvent event = new BenchEvent(new GenericListenerManager<VIBotX>());
+
+        System.out.printf("%d rounds of %d calls across %d listener classes, median ns/call%n", rounds, calls, LISTENERS);
+        if (only == null || only.equalsIgnoreCase("Baseline")) {
+            report("Baseline", dispatched(baseline, listeners, event, rounds, calls));
+        }
+        if (only == null || only.equalsIgnoreCase("MethodHandle")) {
+            report("MethodHandle", dispatched(handles, listeners, event, rounds, calls));
+        }
+        if (only == null || only.equalsIgnoreCase("Reflective")) {
+            report("Reflective", dispatched(fallback, listeners, event, rounds, calls));
+        }
+        if (only == null || only.equalsIgnoreCase("Generated")) {
+            report("Generated", dispatched(generated, listeners, event, rounds, calls));
+        }
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    private static double[] dispatched(EventDispatch[] dispatch, EventListener[] listeners, BenchEvent event, int rounds, int calls) throws Exception {
+        double[] results = new double[rounds];
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            for (int call = 0; call < calls; call++) {
+                int index = call & (LISTENERS - 1);
+                dispatch[index].execute(listeners[index], event);
+            }
+            results[round] = (System.nanoTime() - start) / (double) calls;
+        }
+        sink += event.count;
+        return results;
+    }
+
+    private static void report(String name, double[] results) {
+        // The first third of the rounds are warm up
+        double[] measured = Arrays.copyOfRange(results, results.length / 3, results.length);
+        Arrays.sort(measured);
+        System.out.printf("%-14s %8.2f%n", name, measured[measured.length / 2]);
+    }
+
+    /* How every method was dispatched before generated classes */
+    private static final class BaselineDispatch extends EventDispatch {
+        private final Method method;
+
+        BaselineDispatch(Method method) {
+            this.method = method;
+        }
+
+        @Override
+        public void execute(EventListener listener, Event<VIBotX> event) throws EventHandlingException {
+            try {
+                method.invoke(listener, event);
+            } catch (Exception ex) {
+                throw new EventHandlingException("Failed to handle Event", ex.getCause());
+            }
+        }
+    }
+
+    /* How non-public methods were dispatched until they fell back to reflection again */
+    private static final class HandleDispatch extends EventDispatch {
+        private static final MethodType dispatchType = MethodType.methodType(void.class, EventListener.class, Event.class);
+        private final MethodHandle handle;
+
+        HandleDispatch(MethodHandle handle) {
+            this.handle = handle.asType(dispatchType);
+        }
+
+        @Override
+        public void execute(EventListener listener, Event<VIBotX> event) throws EventHandlingException {
+            try {
+                handle.invokeExact(listener, (Event) event);
+            } catch (Throwable thrown) {
+                throw new EventHandlingException("Failed to handle Event", thrown);
+            }
+        }
+    }
+
+    public static final class BenchEvent extends Event<VIBotX> {
+        long count;
+
+        BenchEvent(ListenerManager<VIBotX> manager) {
+            super(manager);
+        }
+
+        @Override
+        public void respond(String response) {
+        }
+    }
+
+    public static final class First implements EventListener {
+        public void onEvent(BenchEvent event) {
+            event.count++;
+        }
+    }
+
+    public static final class Second implements EventListener {
+        public void onEvent(BenchEvent event) {
+            event.count += 2;
+        }
+    }
+
+    public static final class Third implements EventListener {
+        public void onEvent(BenchEvent event) {
+            event.count += 3;
+        }
+    }
+
+    public static final class Fourth implements EventListener {
+        public void onEvent(BenchEvent event) {
+            event.count += 4;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx;
+
+import org.pircbotx.Channel;
+import org.pircbotx.User;
+import org.pircbotx.hooks.Event;
+import org.pircbotx.hooks.Listener;
+import org.pircbotx.hooks.events.ConnectEvent;
+import org.pircbotx.hooks.events.DisconnectEvent;
+import org.pircbotx.hooks.events.ServerPingEvent;
+import org.pircbotx.hooks.events.SocketConnectEvent;
+import org.pircbotx.hooks.types.GenericChannelEvent;
+import org.pircbotx.hooks.types.GenericUserEvent;
+
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static net.visualillusionsent.vibotx.VIBotX.log;
+
+/**
+ * Channel Lanes
+ * <p/>
+ * Spreads Events over a number of worker lanes by hashing the {@link Channel} they happened in, or the
+ * {@link User} for private and user scoped Events. Events for the same channel (or user) always land
+ * on the same lane and are handled in order, while different channels are handled in parallel.
+ * <p/>
+ * Connection level Events ({@link SocketConnectEvent}, {@link ConnectEvent}, {@link DisconnectEvent}
+ * and {@link ServerPingEvent}) act as a barrier: every lane finishes what was queued before them, the
+ * Event is handled on its own, and then the lanes continue. Any other Event with neither a channel nor
+ * a user is handled on the first lane.
+ * <p/>
+ * The order only holds if the lanes are fed by one thread, so VIBotX installs a synchronous listener manager whenever
+ * lanes are enabled; the PircBotX input thread then queues each line onto its lane in the order it was read, and waits
+ * when that lane is full.
+ *
+ * @author Jason (darkdiplomat)
+ */
+final class ChannelLanes implements Listener<VIBotX> {
+    private final Listener<VIBotX> next;
+    private final Lane[] lanes;
+    /* Keeps barriers queued in the same order on every lane */
+    private final Object barrierLock = new Object();
+
+    ChannelLanes(Listener<VIBotX> next, int laneCount, int laneCapacity) {
+        this.next = next;
+        this.lanes = new Lane[laneCount];
+        for (int index = 0; index < laneCount; index++) {
+            lanes[index] = new Lane(index, laneCapacity);
+            lanes[index].start();
+        }
+    }
+
+    @Override
+    public final void onEvent(Event<VIBotX> event) throws Exception {
+        if (isGlobal(event)) {
+            Barrier barrier = new Barrier(event, lanes.length);
+            synchronized (barrierLock) {
+                for (Lane lane : lanes) {
+                    lane.queue.put(barrier);
+                }
+            }
+            return;
+        }
+        lanes[laneFor(event)].queue.put(new Handle(event));
+    }
+
+    private int laneFor(Event<VIBotX> event) {
+        int hash = 0;
+        if (event instanceof GenericChannelEvent && ((GenericChannelEvent) event).getChannel() != null) {
+            hash = caseInsensitiveHash(((GenericChannelEvent) event).getChannel().getName());
+        } else if (event instanceof GenericUserEvent && ((GenericUserEvent) event).getUser() != null) {
+            // The User object is kept across nick changes, so its identity keeps a user on one lane
+            hash = System.identityHashCode(((GenericUserEvent) event).getUser());
+        }
+        hash ^= (hash >>> 16);
+        return (hash & 0x7FFFFFFF) % lanes.length;
+    }
+
+    /* Hashes the name as if lower cased, without allocating the lower cased copy */
+    private static int caseInsensitiveHash(String name) {
+        int hash = 0;
+        for (int index = 0; index < name.length(); index++) {
+            hash = 31 * hash + Character.toLowerCase(name.charAt(index));
+        }
+        return hash;
+    }
+
+    private static boolean isGlobal(Event<VIBotX> event) {
+        return event instanceof ServerPingEvent || event instanceof ConnectEvent || event instanceof DisconnectEvent || event instanceof SocketConnectEvent;
+    }
+
+    private void handle(Event<VIBotX> event) {
+        try {
+            next.onEvent(event);
+        } catch (Throwable thrown) {
+            log.error("Exception while handling Event: " + event.getClass().getSimpleName(), thrown);
+        }
+    }
+
+    /**
+     * Gets the number of Events waiting on each lane
+     *
+     * @return the depth of each lane
+     */
+    final int[] getLaneDepths() {
+        int[] depths = new int[lanes.length];
+        for (int index = 0; index < lanes.length; index++) {
+            depths[index] = lanes[index].queue.size();
+        }
+        return depths;
+    }
+
+    /**
+     * Gets a one line summary of the Events waiting on each lane
+     *
+     * @return the statistics
+     */
+    final String getStatistics() {
+        return "Lanes depths=" + Arrays.toString(getLaneDepths());
+    }
+
+    /**
+     * Something for a lane to do
+     */
+    private interface LaneTask {
+        void run(int lane) throws InterruptedException;
+    }
+
+    private final class Handle implements LaneTask {
+        private final Event<VIBotX> event;
+
+        Handle(Event<VIBotX> event) {
+            this.event = event;
+        }
+
+        @Override
+        public void run(int lane) {
+            handle(event);
+        }
+    }
+
+    /**
+     * Queued once on every lane; the first lane waits for all lanes to arrive, handles the Event, then releases the others
+     */
+    private final class Barrier implements LaneTask {
+        private final Event<VIBotX> event;
+        private final CountDownLatch arrived;
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        Barrier(Event<VIBotX> event, int laneCount) {
+            this.event = event;
+            this.arrived = new CountDownLatch(laneCount);
+        }
+
+        @Override
+        public void run(int lane) throws InterruptedException {
+            arrived.countDown();
+            if (lane == 0) {
+                arrived.await();
+                try {
+                    handle(event);
+                } finally {
+                    done.countDown();
+                }
+            } else {
+                done.await();
+            }
+        }
+    }
+
+    private final class Lane extends Thread {
+        private final int index;
+        private final BlockingQueue<LaneTask> queue;
+
+        Lane(int index, int capacity) {
+            super("VIBotX-ChannelLane-" + index);
+            this.index = index;
+            this.queue = new LinkedBlockingQueue<>(capacity);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                try {
+                    queue.take().run(index);
+                } catch (InterruptedException iex) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -19,25 +19,40 @@ package net.visualillusionsent.vibotx;
 
 import net.visualillusionsent.utils.JarUtils;
 import net.visualillusionsent.vibotx.api.command.BaseCommand;
-import net.visualillusionsent.vibotx.api.command.BotCommand;
+import net.visualillusionsent.vibotx.api.command.CommandCache;
+import net.visualillusionsent.vibotx.api.command.CommandChain;
+import net.visualillusionsent.vibotx.api.command.CommandConcurrency;
 import net.visualillusionsent.vibotx.api.command.CommandCreationException;
+import net.visualillusionsent.vibotx.api.command.CommandDescriptor;
 import net.visualillusionsent.vibotx.api.command.CommandEvent;
+import net.visualillusionsent.vibotx.api.command.CommandInterceptor;
+import net.visualillusionsent.vibotx.api.command.PermissionContext;
 import net.visualillusionsent.vibotx.api.command.ReturnStatus;
+import net.visualillusionsent.vibotx.api.plugin.JavaPlugin;
 import net.visualillusionsent.vibotx.api.plugin.Plugin;
 import net.visualillusionsent.vibotx.command.OkThanksCommand;
-import net.visualillusionsent.vibotx.configuration.BotOpsManager;
+import net.visualillusionsent.vibotx.configuration.ConfigurationManager;
 import org.pircbotx.Channel;
 import org.pircbotx.User;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
 
 import static net.visualillusionsent.vibotx.VIBotX.log;
 import static net.visualillusionsent.vibotx.api.command.ReturnStatus.ERROR;
 import static net.visualillusionsent.vibotx.api.command.ReturnStatus.FAILURE;
 import static net.visualillusionsent.vibotx.api.command.ReturnStatus.NOTCOMMAND;
+import static net.visualillusionsent.vibotx.api.command.ReturnStatus.QUEUED;
 import static net.visualillusionsent.vibotx.api.command.ReturnStatus.SUCCESS;
+import static net.visualillusionsent.vibotx.api.command.ReturnStatus.THROTTLED;
 
 /**
  * Command parsing class
@@ -52,21 +67,75 @@ import static net.visualillusionsent.vibotx.api.command.ReturnStatus.SUCCESS;
 public final class CommandParser {
 
     /**
-     * Synchronization lock object
+     * Lock held while running {@link CommandConcurrency#GLOBAL} commands
      */
     private static final Object lock = new Object();
 
     /**
-     * HashMap of command names to their {@link net.visualillusionsent.vibotx.api.command.BaseCommand} counterpart
+     * Striped locks for {@link CommandConcurrency#CHANNEL} commands, picked by channel (or user for private messages)
      */
-    private final HashMap<String, BaseCommand> commands;
+    private static final Object[] channelLocks = new Object[64];
+
+    static {
+        for (int index = 0; index < channelLocks.length; index++) {
+            channelLocks[index] = new Object();
+        }
+    }
+
+    /**
+     * Map of prefixed, lower cased command names to their {@link net.visualillusionsent.vibotx.api.command.BaseCommand} counterpart
+     *
+     * @see CommandTrie#key(char, String)
+     */
+    private final ConcurrentHashMap<String, BaseCommand> commands;
+
+    /**
+     * Reverse index of the keys each {@link Plugin} registered, so removal only touches what the plugin owns
+     */
+    private final HashMap<Plugin, ArrayList<String>> owned;
+
+    /**
+     * The {@link #commands} as a trie for matching messages; rebuilt when a registration changes
+     */
+    private volatile CommandTrie trie = CommandTrie.EMPTY;
+
+    /**
+     * The help list for the {@link #commands}; dropped when a registration changes and rebuilt on the next request for help
+     */
+    private volatile HelpIndex help = HelpIndex.EMPTY;
+
+    /**
+     * Registered {@link CommandInterceptor}s in the order they run; guarded by the registry lock
+     */
+    private final ArrayList<Interceptor> interceptors = new ArrayList<>();
+
+    /**
+     * The precompiled {@link CommandChain} of each command some interceptor applies to; replaced whole on any change
+     */
+    private volatile Map<BaseCommand, CommandChain> chains = Collections.emptyMap();
+
+    /**
+     * Guards registration changes; lookups read {@link #trie} without locking
+     */
+    private final Object registryLock = new Object();
+
+    /**
+     * Number of registered names using each prefix character; guarded by the registry lock
+     */
+    private final HashMap<Character, Integer> prefixCounts = new HashMap<>();
+
+    /**
+     * One bit per character in use as a command prefix, rebuilt when a prefix gains its first or loses its last name
+     */
+    private volatile long[] prefixBits = new long[0];
 
     /**
      * Constructs a new {@code CommandParser}<br>
      * Should not be constructed externally
      */
     private CommandParser() {
-        commands = new HashMap<>();
+        commands = new ConcurrentHashMap<>();
+        owned = new HashMap<>();
     }
 
     /* Initialization on Demand Holder idiom */
@@ -108,21 +177,170 @@ public final class CommandParser {
      */
     public final void add(BaseCommand cmd) throws CommandCreationException {
         if (cmd != null) {
-            if (!commands.containsKey(cmd.getName())) {
-                commands.put(cmd.getName(), cmd);
-            } else {
-                throw new CommandCreationException("Command: '".concat(cmd.getName()).concat("' is already registered!"));
-            }
-            if (!cmd.getAliases()[0].equals(BotCommand.NULL)) {
-                for (String alias : cmd.getAliases()) {
-                    if (!commands.containsKey(alias)) {
-                        commands.put(alias, cmd);
+            synchronized (registryLock) {
+                ArrayList<String> names = owned.get(cmd.getPlugin());
+                if (names == null) {
+                    names = new ArrayList<>();
+                    owned.put(cmd.getPlugin(), names);
+                }
+                CommandDescriptor desc = cmd.getDescriptor();
+                String key = CommandTrie.key(desc.getPrefix(), desc.getName());
+                if (commands.putIfAbsent(key, cmd) == null) {
+                    names.add(key);
+                    countPrefix(desc.getPrefix(), 1);
+                } else {
+                    throw new CommandCreationException("Command: '".concat(key).concat("' is already registered!"));
+                }
+                for (String alias : desc.getAliases()) {
+                    key = CommandTrie.key(desc.getPrefix(), alias);
+                    if (commands.putIfAbsent(key, cmd) == null) {
+                        names.add(key);
+                        countPrefix(desc.getPrefix(), 1);
                     } else {
-                        log.warning("Command: '".concat(alias).concat("' is already registered!"));
+                        log.warning("Command: '".concat(key).concat("' is already registered!"));
+                    }
+                }
+                trie = CommandTrie.build(commands);
+                help = null;
+                rebuildChains();
+            }
+        }
+    }
+
+    /**
+     * Adds a {@link CommandInterceptor} around every command it applies to
+     *
+     * @param plugin      the {@link Plugin} the interceptor belongs to; it is removed when the plugin is disabled
+     * @param interceptor the {@link CommandInterceptor}
+     * @param order       where the interceptor sits in the chain; lower orders run first, equal orders by registration
+     */
+    public final void addInterceptor(Plugin plugin, CommandInterceptor interceptor, int order) {
+        if (plugin == null || interceptor == null) {
+            return;
+        }
+        synchronized (registryLock) {
+            Interceptor added = new Interceptor(plugin, interceptor, order);
+            int index = interceptors.size(); // After every interceptor of the same order, keeping registration order
+            while (index > 0 && interceptors.get(index - 1).order > order) {
+                index--;
+            }
+            interceptors.add(index, added);
+            rebuildChains();
+        }
+    }
+
+    /**
+     * Removes a {@link CommandInterceptor}
+     *
+     * @param interceptor the {@link CommandInterceptor}
+     */
+    public final void removeInterceptor(CommandInterceptor interceptor) {
+        synchronized (registryLock) {
+            Iterator<Interceptor> interceptorIterator = interceptors.iterator();
+            boolean removed = false;
+            while (interceptorIterator.hasNext()) {
+                if (interceptorIterator.next().interceptor == interceptor) {
+                    interceptorIterator.remove();
+                    removed = true;
+                }
+            }
+            if (removed) {
+                rebuildChains();
+            }
+        }
+    }
+
+    /**
+     * Drops the chains of removed commands, leaving the rest as they were; must be called holding the registry lock
+     *
+     * @param removed the removed {@link BaseCommand}s
+     */
+    private void dropChains(Collection<BaseCommand> removed) {
+        Map<BaseCommand, CommandChain> current = chains;
+        IdentityHashMap<BaseCommand, CommandChain> kept = null;
+        for (BaseCommand cmd : removed) {
+            if (current.containsKey(cmd)) {
+                if (kept == null) {
+                    kept = new IdentityHashMap<>(current);
+                }
+                kept.remove(cmd);
+            }
+        }
+        if (kept != null) {
+            chains = kept;
+        }
+    }
+
+    /**
+     * Flattens the interceptors into a chain for each command they apply to and publishes them together;
+     * must be called holding the registry lock
+     */
+    private void rebuildChains() {
+        if (interceptors.isEmpty()) {
+            chains = Collections.emptyMap();
+            return;
+        }
+        IdentityHashMap<BaseCommand, CommandChain> built = new IdentityHashMap<>();
+        for (BaseCommand cmd : commands.values()) {
+            if (built.containsKey(cmd)) {
+                continue; // An alias of one already built
+            }
+            CommandChain chain = null;
+            for (int index = interceptors.size() - 1; index >= 0; index--) {
+                CommandInterceptor interceptor = interceptors.get(index).interceptor;
+                try {
+                    if (interceptor.appliesTo(cmd.getDescriptor())) {
+                        chain = new Link(interceptor, cmd, chain != null ? chain : new Terminal(cmd));
                     }
+                } catch (Throwable thrown) {
+                    log.error("Exception occurred while asking CommandInterceptor: " + interceptor.getClass().getName() + " about Command: " + cmd.getName(), thrown);
                 }
             }
+            if (chain != null) {
+                built.put(cmd, chain);
+            }
         }
+        chains = built;
+    }
+
+    /**
+     * Adjusts the number of names registered under a prefix; must be called holding the registry lock
+     */
+    private void countPrefix(char prefix, int change) {
+        Integer current = prefixCounts.get(prefix);
+        int updated = (current == null ? 0 : current) + change;
+        if (updated > 0) {
+            prefixCounts.put(prefix, updated);
+        } else {
+            prefixCounts.remove(prefix);
+        }
+        if ((current == null || current == 0) != (updated <= 0)) {
+            long[] bits = new long[0];
+            for (char used : prefixCounts.keySet()) {
+                if (used >>> 6 >= bits.length) {
+                    bits = Arrays.copyOf(bits, (used >>> 6) + 1);
+                }
+                bits[used >>> 6] |= 1L << used;
+            }
+            prefixBits = bits;
+        }
+    }
+
+    /**
+     * Checks whether a message starts with a character any command uses as its prefix
+     * <p/>
+     * A single bit test, so ordinary chat can be passed on without building a {@link CommandEvent}.
+     *
+     * @param message the message
+     * @return {@code true} if the message could be a command
+     */
+    public static boolean isCommandPrefix(String message) {
+        if (message == null || message.isEmpty()) {
+            return false;
+        }
+        char first = message.charAt(0);
+        long[] bits = getInstance().prefixBits;
+        return first >>> 6 < bits.length && (bits[first >>> 6] & (1L << first)) != 0;
     }
 
     /**
@@ -133,126 +351,343 @@ public final class CommandParser {
      * @return {@code true} if is parsed successfully
      */
     public static ReturnStatus parseBotCommand(CommandEvent event) {
-        synchronized (lock) {
-            BaseCommand cmd = getInstance().getCommand(event.getCommand());
-
-            User user = event.getUser();
-            Channel channel = event.getChannel();
-            if (cmd != null) {
-                if (cmd.getAllowedPrefix() != event.getPrefix()) {
-                    return NOTCOMMAND;
-                }
-                try {
-                    if (event.getChannel() != null && MuteTracker.botMuteIn(event.getChannel())) {
-                        if (!BotOpsManager.isBotOp(user) && !channel.isOp(user) && cmd.getClass() != OkThanksCommand.class) {
-                            return FAILURE;
-                        }
-                    }
-                    if (event.getChannel() != null && MuteTracker.userMuteIn(event.getUser(), event.getChannel())) {
-                        if (!BotOpsManager.isBotOp(user) && !channel.isOp(user)) {
-                            return FAILURE;
-                        }
-                    }
-                    if (!cmd.privateMessageAllowed() && channel == null) {
-                        return FAILURE;
-                    }
-                    if (cmd.requiresVoice() && (channel == null || !channel.hasVoice(user) || !channel.isOp(user) || !BotOpsManager.isBotOp(user))) {
-                        return FAILURE;
-                    }
-                    if (cmd.requiresOp() && (channel == null || !channel.isOp(user) || !BotOpsManager.isBotOp(user))) {
-                        return FAILURE;
-                    }
-                    if (cmd.requiresOwner() && !BotOpsManager.isBotOp(user)) {
+        BaseCommand cmd = getInstance().getCommand(event.getMessage());
+
+        Channel channel = event.getChannel();
+        if (cmd != null) {
+            try {
+                PermissionContext perms = event.getPermissions();
+                if (perms.isBotMuted()) {
+                    if (!perms.isBotOp() && !perms.isOp() && cmd.getClass() != OkThanksCommand.class) {
                         return FAILURE;
                     }
-                    if (!cmd.argumentsInRange(event.getArguments().length)) {
-                        cmd.onBadSyntax(event.getUser());
+                }
+                if (perms.isMuted()) {
+                    if (!perms.isBotOp() && !perms.isOp()) {
                         return FAILURE;
                     }
-                    if (cmd.execute(event)) {
-                        return SUCCESS;
-                    }
+                }
+                CommandDescriptor desc = cmd.getDescriptor();
+                if (!desc.isPrivateAllowed() && channel == null) {
+                    return FAILURE;
+                }
+                if (!desc.permits(perms.getMask())) {
+                    return FAILURE;
+                }
+                if (!cmd.argumentsInRange(event.getArgumentCount())) { // May be overridden, so not read from the descriptor
+                    cmd.onBadSyntax(event.getUser());
                     return FAILURE;
-                } catch (Throwable thrown) {
-                    log.error("Exception occurred while parsing Command: ".concat(event.getCommand()), thrown);
-                    return ERROR;
                 }
+                // Charged only once the command will actually run, so a typo does not cost a token
+                if (ConfigurationManager.useCommandThrottle() && !perms.isBotOp() && !CommandThrottle.getInstance().allow(cmd, event)) {
+                    return THROTTLED;
+                }
+                if (ConfigurationManager.usePluginMailboxes() && cmd.getPlugin() instanceof JavaPlugin) {
+                    return ((JavaPlugin) cmd.getPlugin()).getMailbox().execute(new QueuedCommand(cmd, event)) ? QUEUED : ERROR;
+                }
+                if (ConfigurationManager.useCommandWorkers()) {
+                    return CommandWorkers.getInstance().execute(new QueuedCommand(cmd, event)) ? QUEUED : ERROR;
+                }
+                if (runChain(cmd, event)) {
+                    return SUCCESS;
+                }
+                return FAILURE;
+            } catch (Throwable thrown) {
+                log.error("Exception occurred while parsing Command: ".concat(event.getCommand()), thrown);
+                return ERROR;
             }
         }
         return NOTCOMMAND;
     }
 
     /**
-     * Gets the {@link BaseCommand} by name from the commands map
+     * Runs a {@link BaseCommand} through its {@link CommandChain}, if any interceptors apply to it
      *
-     * @param command the name of the {@link BaseCommand} to get
-     * @return the {@link BaseCommand} if found; {@code null} otherwise
+     * @param cmd   the {@link BaseCommand} to run
+     * @param event the {@link CommandEvent}
+     * @return the result of the chain, or of {@link #execute(BaseCommand, CommandEvent)} without one
      */
-    private BaseCommand getCommand(String command) {
-        return commands.get(command);
+    private static boolean runChain(BaseCommand cmd, CommandEvent event) {
+        Map<BaseCommand, CommandChain> current = getInstance().chains;
+        if (!current.isEmpty()) {
+            CommandChain chain = current.get(cmd);
+            if (chain != null) {
+                return chain.proceed(event);
+            }
+        }
+        return execute(cmd, event);
     }
 
     /**
-     * Prints out the help list to the {@link User} based on their status in the channel
+     * A registered {@link CommandInterceptor}
+     */
+    private static final class Interceptor {
+        private final Plugin plugin;
+        private final CommandInterceptor interceptor;
+        private final int order;
+
+        Interceptor(Plugin plugin, CommandInterceptor interceptor, int order) {
+            this.plugin = plugin;
+            this.interceptor = interceptor;
+            this.order = order;
+        }
+    }
+
+    /**
+     * A {@link CommandInterceptor} and the rest of the chain after it
+     */
+    private static final class Link extends CommandChain {
+        private final CommandInterceptor interceptor;
+        private final BaseCommand cmd;
+        private final CommandChain next;
+
+        Link(CommandInterceptor interceptor, BaseCommand cmd, CommandChain next) {
+            this.interceptor = interceptor;
+            this.cmd = cmd;
+            this.next = next;
+        }
+
+        @Override
+        public boolean proceed(CommandEvent event) {
+            return interceptor.intercept(cmd, event, next);
+        }
+    }
+
+    /**
+     * The end of a chain, running the {@link BaseCommand} itself
+     */
+    private static final class Terminal extends CommandChain {
+        private final BaseCommand cmd;
+
+        Terminal(BaseCommand cmd) {
+            this.cmd = cmd;
+        }
+
+        @Override
+        public boolean proceed(CommandEvent event) {
+            return execute(cmd, event);
+        }
+    }
+
+    /**
+     * Executes a {@link BaseCommand}, or replays its cached responses if it declares a cache TTL
      *
-     * @param channel the {@link Channel} help is being called from
-     * @param user    the {@link User} calling for help
-     */
-    public static void printHelp(Channel channel, User user, int pageStart) {
-        synchronized (lock) {
-            user.send().notice("-- Help List for you in Channel: ".concat(channel.getName()).concat(" --"));
-            int pageMax = getInstance().commands.values().size() / 10;
-            pageMax = pageMax < 1 ? 1 : pageMax;
-            if (pageMax < pageStart) {
-                pageStart = 1;
+     * @param cmd   the {@link BaseCommand} to execute
+     * @param event the {@link CommandEvent}
+     * @return the result of {@link BaseCommand#execute(CommandEvent)}; {@code true} if replayed
+     */
+    private static boolean execute(BaseCommand cmd, CommandEvent event) {
+        if (cmd.getCacheTtl() <= 0) {
+            return executeLocked(cmd, event);
+        }
+        CommandCache cache = CommandCache.getInstance();
+        if (cache.replay(cmd, event)) {
+            return true;
+        }
+        boolean result = executeLocked(cmd, event);
+        if (result) {
+            cache.store(cmd, event);
+        }
+        return result;
+    }
+
+    /**
+     * Executes a {@link BaseCommand} under the lock its {@link CommandConcurrency} policy asks for
+     *
+     * @param cmd   the {@link BaseCommand} to execute
+     * @param event the {@link CommandEvent}
+     * @return the result of {@link BaseCommand#execute(CommandEvent)}
+     */
+    private static boolean executeLocked(BaseCommand cmd, CommandEvent event) {
+        switch (cmd.getConcurrency()) {
+            case CONCURRENT:
+                return cmd.execute(event);
+            case GLOBAL:
+                synchronized (lock) {
+                    return cmd.execute(event);
+                }
+            default:
+                synchronized (channelLock(event)) {
+                    return cmd.execute(event);
+                }
+        }
+    }
+
+    private static Object channelLock(CommandEvent event) {
+        Object key = event.getChannel() != null ? event.getChannel().getName() : event.getUser().getNick();
+        int hash = key.hashCode();
+        return channelLocks[(hash ^ (hash >>> 16)) & (channelLocks.length - 1)];
+    }
+
+    /**
+     * A {@link BaseCommand} execution handed off to a {@link net.visualillusionsent.vibotx.api.plugin.PluginMailbox}
+     * or the {@link CommandWorkers}, interrupted if it overruns its deadline
+     */
+    private static final class QueuedCommand implements Runnable {
+        private final BaseCommand cmd;
+        private final CommandEvent event;
+        private Thread runner; // Guarded by this
+        private boolean done; // Guarded by this
+
+        QueuedCommand(BaseCommand cmd, CommandEvent event) {
+            this.cmd = cmd;
+            this.event = event;
+        }
+
+        @Override
+        public void run() {
+            long timeout = cmd.getTimeout() == 0 ? ConfigurationManager.getCommandTimeout() : cmd.getTimeout();
+            ScheduledFuture<?> deadline = null;
+            if (timeout > 0) {
+                synchronized (this) {
+                    runner = Thread.currentThread();
+                }
+                deadline = CommandWorkers.getInstance().schedule(new Expiry(this, timeout), timeout);
             }
-            int nPS = (pageStart - 1) * 10;
-            int nPSten = nPS + 10;
-            user.send().notice(String.format("-- Page %d of %d --", pageStart, pageMax));
-            List<BaseCommand> toDisplay = new ArrayList<>();
-            toDisplay.addAll(getInstance().commands.values());
-            for (BaseCommand cmd : toDisplay.subList(nPS, nPSten)) {
-                if (cmd.requiresVoice() && !channel.hasVoice(user)) {
-                    continue;
+            try {
+                runChain(cmd, event);
+            } catch (Throwable thrown) {
+                if (!(thrown instanceof InterruptedException)) {
+                    log.error("Exception occurred while parsing Command: ".concat(event.getCommand()), thrown);
                 }
-                if (cmd.requiresOp() && !channel.isOp(user)) {
-                    continue;
+            } finally {
+                synchronized (this) {
+                    done = true;
+                    runner = null;
                 }
-                if (cmd.requiresOwner() && !(BotOpsManager.isBotOp(user))) {
-                    continue;
+                if (deadline != null) {
+                    deadline.cancel(false);
+                    Thread.interrupted(); // Don't leave an interrupt that arrived as the command finished for the next task
                 }
+            }
+        }
 
-                user.send().notice(cmd.getUsage().concat(" - ").concat(cmd.getDescription()));
-                /*
-                if (cmd.getAliases().length > 1) {
-                    StringBuilder builder = new StringBuilder();
-                    for (String alias : cmd.getAliases()) {
-                        builder.append(alias);
-                        builder.append(" ");
-                    }
-                    user.send().notice("Aliases for ".concat(cmd.getName()).concat(": ").concat(builder.toString()));
+        /**
+         * Interrupts the command if it is still running
+         *
+         * @return {@code true} if interrupted; {@code false} if it had already finished
+         */
+        private synchronized boolean interrupt() {
+            if (done || runner == null) {
+                return false;
+            }
+            runner.interrupt();
+            return true;
+        }
+    }
+
+    /**
+     * Stops a {@link QueuedCommand} that has overrun its deadline and lets the {@link User} know
+     */
+    private static final class Expiry implements Runnable {
+        private final QueuedCommand task;
+        private final long timeout;
+
+        Expiry(QueuedCommand task, long timeout) {
+            this.task = task;
+            this.timeout = timeout;
+        }
+
+        @Override
+        public void run() {
+            if (task.interrupt()) {
+                CommandEvent event = task.event;
+                log.error("Command: " + event.getPrefix() + event.getCommand() + " from " + event.getUser().getNick() + " overran its deadline of " + timeout + "ms and was interrupted");
+                event.getUser().send().notice("Command: " + event.getPrefix() + event.getCommand() + " took too long and was stopped");
+            }
+        }
+    }
+
+    /**
+     * Gets the {@link BaseCommand} a message calls for
+     * <p/>
+     * The prefix and name are matched case-insensitively in place; an unambiguous abbreviation of a name
+     * also matches when enabled in the configuration.
+     *
+     * @param message the message, starting with the command prefix
+     * @return the {@link BaseCommand} if found; {@code null} otherwise
+     */
+    private BaseCommand getCommand(String message) {
+        int end = message.indexOf(' ');
+        return trie.find(message, end < 0 ? message.length() : end, ConfigurationManager.useCommandAbbreviations());
+    }
+
+    /**
+     * Prints out the help list to the {@link User} based on their status in the channel
+     * <p/>
+     * Sent through the {@link CommandEvent} so the help command's responses can be cached.
+     *
+     * @param event     the {@link CommandEvent} calling for help
+     * @param pageStart the page to show
+     */
+    public static void printHelp(CommandEvent event, int pageStart) {
+        event.respondNoticeToUser("-- Help List for you in Channel: ".concat(event.getChannel().getName()).concat(" --"));
+        for (String line : getInstance().helpIndex().page(event.getPermissions().getMask(), pageStart)) {
+            event.respondNoticeToUser(line);
+        }
+    }
+
+    /**
+     * Gets the help list, building it if a registration change dropped it
+     *
+     * @return the {@link HelpIndex}
+     */
+    private HelpIndex helpIndex() {
+        HelpIndex current = help;
+        if (current == null) {
+            synchronized (registryLock) {
+                current = help;
+                if (current == null) {
+                    current = help = HelpIndex.build(commands.values());
                 }
-                */
             }
         }
+        return current;
     }
 
     /**
-     * Removes all {@link BaseCommand}s associated with the {@link Plugin}
+     * Removes all {@link BaseCommand}s and {@link CommandInterceptor}s associated with the {@link Plugin}
+     * <p/>
+     * Only the names the plugin registered are visited: their keys are cut out of the trie, the help list is
+     * left to be rebuilt on the next request for it, and commands being parsed are not waited on. Every
+     * interceptor chain is only rebuilt if the plugin had interceptors of its own.
      *
      * @param plugin the {@link Plugin} to remove {@link BaseCommand}s for
      */
     public final void removePluginCommands(Plugin plugin) {
-        synchronized (lock) {
-            List<String> toRemove = new ArrayList<>();
-            for (String cmdName : commands.keySet()) {
-                BaseCommand cmd = commands.get(cmdName);
-                if (cmd.getPlugin() != null && cmd.getPlugin().equals(plugin)) {
-                    toRemove.add(cmdName);
+        if (plugin == null) {
+            return;
+        }
+        synchronized (registryLock) {
+            boolean interceptorsRemoved = false;
+            Iterator<Interceptor> interceptorIterator = interceptors.iterator();
+            while (interceptorIterator.hasNext()) {
+                if (plugin.equals(interceptorIterator.next().plugin)) {
+                    interceptorIterator.remove();
+                    interceptorsRemoved = true;
+                }
+            }
+            ArrayList<String> names = owned.remove(plugin);
+            ArrayList<String> removedKeys = new ArrayList<>();
+            IdentityHashMap<BaseCommand, Boolean> removed = new IdentityHashMap<>();
+            if (names != null) {
+                for (String key : names) {
+                    BaseCommand cmd = commands.get(key);
+                    if (cmd != null && plugin.equals(cmd.getPlugin()) && commands.remove(key, cmd)) {
+                        countPrefix(cmd.getAllowedPrefix(), -1);
+                        removedKeys.add(key);
+                        removed.put(cmd, Boolean.TRUE);
+                    }
                 }
             }
-            for (String toRem : toRemove) {
-                commands.remove(toRem);
+            if (!removedKeys.isEmpty()) {
+                trie = trie.without(removedKeys);
+                help = null;
+            }
+            if (interceptorsRemoved) {
+                rebuildChains();
+            } else if (!removed.isEmpty()) {
+                dropChains(removed.keySet());
             }
         }
     }
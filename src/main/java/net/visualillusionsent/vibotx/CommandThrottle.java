@@ -0,0 +1,169 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx;
+
+import net.visualillusionsent.vibotx.api.command.BaseCommand;
+import net.visualillusionsent.vibotx.api.command.CommandEvent;
+import net.visualillusionsent.vibotx.configuration.ConfigurationManager;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Command Throttle
+ * <p/>
+ * Token buckets limiting how often commands run per user hostmask, per channel and per command.
+ * Each bucket is a single {@link AtomicLong} holding the time it will next be full, so taking tokens
+ * is a compare-and-set and a throttled command costs a map lookup. Buckets left idle are evicted by a
+ * daemon thread.
+ *
+ * @author Jason (darkdiplomat)
+ */
+final class CommandThrottle {
+    private final Limit users, channels, commands;
+
+    private CommandThrottle() {
+        users = new Limit(ConfigurationManager.getThrottleUserBurst(), ConfigurationManager.getThrottleUserPeriod());
+        channels = new Limit(ConfigurationManager.getThrottleChannelBurst(), ConfigurationManager.getThrottleChannelPeriod());
+        commands = new Limit(ConfigurationManager.getThrottleCommandBurst(), ConfigurationManager.getThrottleCommandPeriod());
+        final long idle = ConfigurationManager.getThrottleIdle();
+        Thread evictor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (true) {
+                    try {
+                        Thread.sleep(Math.max(1000L, idle / 2));
+                    } catch (InterruptedException iex) {
+                        return;
+                    }
+                    long now = now();
+                    users.evict(now, idle);
+                    channels.evict(now, idle);
+                    commands.evict(now, idle);
+                }
+            }
+        }, "VIBotX-CommandThrottle");
+        evictor.setDaemon(true);
+        evictor.start();
+    }
+
+    /**
+     * Takes the {@link BaseCommand}'s cost from the user, channel and command buckets
+     *
+     * @param cmd   the {@link BaseCommand} about to run
+     * @param event the {@link CommandEvent}
+     * @return {@code true} if every bucket had the tokens; {@code false} if the command is throttled and nothing was taken
+     */
+    final boolean allow(BaseCommand cmd, CommandEvent event) {
+        int cost = cmd.getCost();
+        if (cost <= 0) {
+            return true;
+        }
+        long now = now();
+        String host = event.getUser().getHostmask();
+        Object user = host == null || host.isEmpty() ? event.getUser().getNick() : host;
+        if (!users.take(user, cost, now)) {
+            return false;
+        }
+        String channel = event.getChannel() != null ? event.getChannel().getName() : null;
+        if (channel != null && !channels.take(channel, cost, now)) {
+            users.refund(user, cost);
+            return false;
+        }
+        if (!commands.take(cmd, cost, now)) {
+            users.refund(user, cost);
+            if (channel != null) {
+                channels.refund(channel, cost);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private static long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    /**
+     * The buckets for one kind of key, each refilling a token every period up to the burst
+     */
+    private static final class Limit {
+        private final ConcurrentHashMap<Object, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final long period, capacity;
+
+        private Limit(int burst, long period) {
+            this.period = period;
+            this.capacity = burst * period;
+        }
+
+        private boolean take(Object key, int cost, long now) {
+            if (period <= 0 || capacity <= 0) {
+                return true; // Unlimited
+            }
+            AtomicLong full = buckets.get(key);
+            if (full == null) {
+                AtomicLong created = new AtomicLong(now);
+                full = buckets.putIfAbsent(key, created);
+                if (full == null) {
+                    full = created;
+                }
+            }
+            long charge = cost * period;
+            while (true) {
+                long current = full.get();
+                long next = Math.max(current, now) + charge;
+                if (next - now > capacity) {
+                    return false;
+                }
+                if (full.compareAndSet(current, next)) {
+                    return true;
+                }
+            }
+        }
+
+        private void refund(Object key, int cost) {
+            AtomicLong full = buckets.get(key);
+            if (full != null) {
+                full.addAndGet(-cost * period);
+            }
+        }
+
+        private void evict(long now, long idle) {
+            Iterator<Map.Entry<Object, AtomicLong>> bucketIterator = buckets.entrySet().iterator();
+            while (bucketIterator.hasNext()) {
+                Map.Entry<Object, AtomicLong> bucket = bucketIterator.next();
+                if (now - bucket.getValue().get() > idle) {
+                    buckets.remove(bucket.getKey(), bucket.getValue());
+                }
+            }
+        }
+    }
+
+    /* Initialization on Demand Holder idiom, deferred until the configuration has been read */
+    private static class CommandThrottleHolder {
+        public static final CommandThrottle INSTANCE = new CommandThrottle();
+    }
+
+    static CommandThrottle getInstance() {
+        return CommandThrottleHolder.INSTANCE;
+    }
+    /* END */
+}
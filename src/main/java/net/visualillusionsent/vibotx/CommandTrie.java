@@ -0,0 +1,277 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx;
+
+import net.visualillusionsent.vibotx.api.command.BaseCommand;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Command Trie
+ * <p/>
+ * An immutable trie of command names under their prefix characters, matched case-insensitively
+ * straight over the characters of a message. Every node knows the one command reachable below it, if
+ * there is only one, so an unambiguous abbreviation resolves without searching. Aliases end on the same
+ * {@link BaseCommand}, so they never make an abbreviation ambiguous. Lookups allocate nothing.
+ * <p/>
+ * Removing keys copies only the nodes on their paths, so unregistering a plugin costs what the plugin
+ * registered rather than a rebuild of every command.
+ *
+ * @author Jason (darkdiplomat)
+ */
+final class CommandTrie {
+    static final CommandTrie EMPTY = new CommandTrie(new char[0], new Node[0]);
+    private final char[] prefixes;
+    private final Node[] roots;
+
+    private CommandTrie(char[] prefixes, Node[] roots) {
+        this.prefixes = prefixes;
+        this.roots = roots;
+    }
+
+    /**
+     * Builds a trie from registry keys
+     *
+     * @param entries map of {@link #key(char, String)} keys to their commands
+     * @return the trie
+     */
+    static CommandTrie build(Map<String, BaseCommand> entries) {
+        TreeMap<Character, Builder> roots = new TreeMap<>();
+        for (Map.Entry<String, BaseCommand> entry : entries.entrySet()) {
+            String key = entry.getKey();
+            Builder root = roots.get(key.charAt(0));
+            if (root == null) {
+                root = new Builder();
+                roots.put(key.charAt(0), root);
+            }
+            root.insert(key, 1, entry.getValue());
+        }
+        char[] prefixes = new char[roots.size()];
+        Node[] nodes = new Node[roots.size()];
+        int index = 0;
+        for (Map.Entry<Character, Builder> root : roots.entrySet()) {
+            prefixes[index] = root.getKey();
+            nodes[index++] = root.getValue().freeze();
+        }
+        return new CommandTrie(prefixes, nodes);
+    }
+
+    /**
+     * Gets a trie without some registry keys, sharing every node not on their paths
+     *
+     * @param keys the {@link #key(char, String)} keys to remove; keys not in the trie are ignored
+     * @return the trie without the keys
+     */
+    final CommandTrie without(Iterable<String> keys) {
+        char[] newPrefixes = prefixes;
+        Node[] newRoots = roots;
+        for (String key : keys) {
+            int root = Arrays.binarySearch(newPrefixes, key.charAt(0));
+            if (root < 0) {
+                continue;
+            }
+            Node removed = remove(newRoots[root], key, 1);
+            if (removed == newRoots[root]) {
+                continue;
+            }
+            if (newRoots == roots) {
+                newPrefixes = prefixes.clone();
+                newRoots = roots.clone();
+            }
+            if (removed != null) {
+                newRoots[root] = removed;
+            } else {
+                newPrefixes = cut(newPrefixes, root);
+                newRoots = cut(newRoots, root);
+            }
+        }
+        return newRoots == roots ? this : new CommandTrie(newPrefixes, newRoots);
+    }
+
+    /* The node with the key removed below it; the same node if the key was not there, null if nothing is left */
+    private static Node remove(Node node, String key, int index) {
+        BaseCommand command = node.command;
+        char[] keys = node.keys;
+        Node[] children = node.children;
+        if (index == key.length()) {
+            if (command == null) {
+                return node;
+            }
+            command = null;
+        } else {
+            int child = indexOf(keys, key.charAt(index));
+            if (child < 0) {
+                return node;
+            }
+            Node removed = remove(children[child], key, index + 1);
+            if (removed == children[child]) {
+                return node;
+            }
+            if (removed != null) {
+                children = children.clone();
+                children[child] = removed;
+            } else {
+                keys = cut(keys, child);
+                children = cut(children, child);
+            }
+        }
+        if (command == null && children.length == 0) {
+            return null;
+        }
+        return new Node(keys, children, command, unique(command, children));
+    }
+
+    private static int indexOf(char[] keys, char key) {
+        for (int index = 0; index < keys.length; index++) {
+            if (keys[index] == key) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private static char[] cut(char[] array, int index) {
+        char[] cut = new char[array.length - 1];
+        System.arraycopy(array, 0, cut, 0, index);
+        System.arraycopy(array, index + 1, cut, index, cut.length - index);
+        return cut;
+    }
+
+    private static Node[] cut(Node[] array, int index) {
+        Node[] cut = new Node[array.length - 1];
+        System.arraycopy(array, 0, cut, 0, index);
+        System.arraycopy(array, index + 1, cut, index, cut.length - index);
+        return cut;
+    }
+
+    /* The only command at or below a node with these children; null if there are several */
+    private static BaseCommand unique(BaseCommand command, Node[] children) {
+        BaseCommand unique = command;
+        for (Node child : children) {
+            if (child.unique == null || (unique != null && unique != child.unique)) {
+                return null;
+            }
+            unique = child.unique;
+        }
+        return unique;
+    }
+
+    /**
+     * Gets the registry key for a prefix and name
+     *
+     * @param prefix the command prefix
+     * @param name   the command name or alias
+     * @return the key; the prefix followed by the lower cased name
+     */
+    static String key(char prefix, String name) {
+        StringBuilder key = new StringBuilder(name.length() + 1).append(prefix);
+        for (int index = 0; index < name.length(); index++) {
+            key.append(Character.toLowerCase(name.charAt(index)));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Finds the command named at the start of a message
+     *
+     * @param message       the message, starting with the prefix
+     * @param end           the index the command name ends at
+     * @param abbreviations whether an unambiguous abbreviation of a name matches
+     * @return the command; {@code null} if none matched
+     */
+    final BaseCommand find(String message, int end, boolean abbreviations) {
+        if (end < 2) {
+            return null; // Just a prefix, or nothing at all
+        }
+        int root = Arrays.binarySearch(prefixes, message.charAt(0));
+        if (root < 0) {
+            return null;
+        }
+        Node node = roots[root];
+        for (int index = 1; index < end && node != null; index++) {
+            node = node.child(Character.toLowerCase(message.charAt(index)));
+        }
+        if (node == null) {
+            return null;
+        }
+        if (node.command != null) {
+            return node.command;
+        }
+        return abbreviations ? node.unique : null;
+    }
+
+    private static final class Node {
+        private final char[] keys;
+        private final Node[] children;
+        /* The command named exactly by the path to this node */
+        private final BaseCommand command;
+        /* The only command at or below this node; null if there are several */
+        private final BaseCommand unique;
+
+        private Node(char[] keys, Node[] children, BaseCommand command, BaseCommand unique) {
+            this.keys = keys;
+            this.children = children;
+            this.command = command;
+            this.unique = unique;
+        }
+
+        private Node child(char key) {
+            if (keys.length <= 8) {
+                for (int index = 0; index < keys.length; index++) {
+                    if (keys[index] == key) {
+                        return children[index];
+                    }
+                }
+                return null;
+            }
+            int index = Arrays.binarySearch(keys, key);
+            return index < 0 ? null : children[index];
+        }
+    }
+
+    private static final class Builder {
+        private final TreeMap<Character, Builder> children = new TreeMap<>();
+        private BaseCommand command;
+
+        private void insert(String key, int index, BaseCommand cmd) {
+            if (index == key.length()) {
+                command = cmd;
+                return;
+            }
+            Builder child = children.get(key.charAt(index));
+            if (child == null) {
+                child = new Builder();
+                children.put(key.charAt(index), child);
+            }
+            child.insert(key, index + 1, cmd);
+        }
+
+        private Node freeze() {
+            char[] keys = new char[children.size()];
+            Node[] nodes = new Node[children.size()];
+            int index = 0;
+            for (Map.Entry<Character, Builder> child : children.entrySet()) {
+                keys[index] = child.getKey();
+                nodes[index++] = child.getValue().freeze();
+            }
+            return new Node(keys, nodes, command, unique(command, nodes));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx;
+
+import net.visualillusionsent.vibotx.configuration.ConfigurationManager;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static net.visualillusionsent.vibotx.VIBotX.log;
+
+/**
+ * Command Workers
+ * <p/>
+ * The pool commands run on when they are not run on the thread reading from the server,
+ * and the timer that interrupts commands overrunning their deadline.
+ *
+ * @author Jason (darkdiplomat)
+ */
+final class CommandWorkers {
+    private final ThreadPoolExecutor pool;
+    private final ScheduledThreadPoolExecutor deadlines;
+    private final AtomicInteger refused = new AtomicInteger();
+
+    private CommandWorkers() {
+        int threads = ConfigurationManager.getCommandWorkerThreads();
+        pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(ConfigurationManager.getCommandWorkerQueue()), new NamedThreads("VIBotX-CommandWorker-"));
+        deadlines = new ScheduledThreadPoolExecutor(1, new NamedThreads("VIBotX-CommandDeadline-"));
+        deadlines.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Runs a command on a worker
+     *
+     * @param task the command to run
+     * @return {@code true} if queued; {@code false} if every worker is busy and the queue is full
+     */
+    final boolean execute(Runnable task) {
+        try {
+            pool.execute(task);
+            return true;
+        } catch (RejectedExecutionException rejected) {
+            int count = refused.incrementAndGet();
+            if (count == 1 || count % 100 == 0) {
+                log.warning("Command workers are saturated, refused " + count + " command(s) so far");
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Schedules the action taken when a command overruns its deadline
+     *
+     * @param expiry  the action
+     * @param timeout the milliseconds until the deadline
+     * @return the scheduled action, to cancel once the command finishes
+     */
+    final ScheduledFuture<?> schedule(Runnable expiry, long timeout) {
+        return deadlines.schedule(expiry, timeout, TimeUnit.MILLISECONDS);
+    }
+
+    private static final class NamedThreads implements ThreadFactory {
+        private final String name;
+        private final AtomicInteger threadNum = new AtomicInteger();
+
+        private NamedThreads(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, name + threadNum.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /* Initialization on Demand Holder idiom, deferred until the configuration has been read */
+    private static class CommandWorkersHolder {
+        public static final CommandWorkers INSTANCE = new CommandWorkers();
+    }
+
+    static CommandWorkers getInstance() {
+        return CommandWorkersHolder.INSTANCE;
+    }
+    /* END */
+}
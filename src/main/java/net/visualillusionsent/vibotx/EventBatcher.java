@@ -0,0 +1,154 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx;
+
+import net.visualillusionsent.vibotx.api.events.EventBatch;
+import net.visualillusionsent.vibotx.api.events.EventHandler;
+import net.visualillusionsent.vibotx.logging.Level;
+import org.pircbotx.Channel;
+import org.pircbotx.User;
+import org.pircbotx.hooks.Event;
+import org.pircbotx.hooks.events.JoinEvent;
+import org.pircbotx.hooks.events.PartEvent;
+import org.pircbotx.hooks.types.GenericUserEvent;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static net.visualillusionsent.vibotx.VIBotX.log;
+
+/**
+ * Event Batcher
+ * <p/>
+ * Gathers bursty membership and mode Events (joins, parts, quits, modes and user lists) per type and
+ * channel. A batch is flushed once it reaches the size limit or the window since its first Event has
+ * passed; it is then passed to listeners taking an {@link EventBatch} and, for joins and parts, written
+ * as a single log record.
+ * <p/>
+ * Listeners of the individual Event types are still passed every Event as it arrives. Batches of
+ * different types or channels flush independently, so their relative order is not kept.
+ *
+ * @author Jason (darkdiplomat)
+ */
+final class EventBatcher {
+    private static final EventHandler handler = EventHandler.getInstance();
+    private static final int EVENT_BATCH = handler.getTypeId(EventBatch.class);
+    private final long window;
+    private final int limit;
+    /* Event type to channel (null for none) to the Events gathered so far; guarded by this */
+    private final IdentityHashMap<Class<?>, IdentityHashMap<Channel, ArrayList<Event<VIBotX>>>> pending = new IdentityHashMap<>();
+    private final ScheduledThreadPoolExecutor flusher = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "VIBotX-EventBatcher");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    EventBatcher(long window, int limit) {
+        this.window = window;
+        this.limit = limit;
+    }
+
+    /**
+     * Adds an Event to the batch for its type and channel
+     *
+     * @param event
+     *         the Event
+     * @param channel
+     *         the channel the Event happened in; {@code null} for none
+     * @param logLevel
+     *         the Level batches of this type are logged at; {@code null} if they are not logged
+     */
+    final void offer(Event<VIBotX> event, final Channel channel, Level logLevel) {
+        if (!handler.hasListeners(EVENT_BATCH) && (logLevel == null || !log.isEnabled(logLevel))) {
+            return; // Nobody would see the batch, only EventBatch listeners count toward its interest
+        }
+        final Class<?> type = event.getClass();
+        ArrayList<Event<VIBotX>> full = null;
+        synchronized (this) {
+            IdentityHashMap<Channel, ArrayList<Event<VIBotX>>> byChannel = pending.get(type);
+            if (byChannel == null) {
+                byChannel = new IdentityHashMap<>();
+                pending.put(type, byChannel);
+            }
+            ArrayList<Event<VIBotX>> events = byChannel.get(channel);
+            if (events == null) {
+                events = new ArrayList<>();
+                byChannel.put(channel, events);
+                final ArrayList<Event<VIBotX>> scheduled = events;
+                flusher.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        flushIfPending(type, channel, scheduled);
+                    }
+                }, window, TimeUnit.MILLISECONDS);
+            }
+            events.add(event);
+            if (events.size() >= limit) {
+                byChannel.remove(channel);
+                full = events;
+            }
+        }
+        if (full != null) {
+            deliver(type, channel, full);
+        }
+    }
+
+    private void flushIfPending(Class<?> type, Channel channel, ArrayList<Event<VIBotX>> scheduled) {
+        synchronized (this) {
+            IdentityHashMap<Channel, ArrayList<Event<VIBotX>>> byChannel = pending.get(type);
+            if (byChannel == null || byChannel.get(channel) != scheduled) {
+                return; // Already flushed by the size limit
+            }
+            byChannel.remove(channel);
+        }
+        deliver(type, channel, scheduled);
+    }
+
+    private void deliver(Class<?> type, Channel channel, ArrayList<Event<VIBotX>> events) {
+        EventBatch batch = new EventBatch(events.get(0).getBot(), type, channel, events);
+        try {
+            handler.passEvent(batch, EVENT_BATCH);
+        } catch (RuntimeException rex) {
+            log.error("Exception while passing EventBatch of " + type.getSimpleName(), rex);
+        }
+        if (type == JoinEvent.class && log.isEnabled(Level.JOIN)) {
+            log.join(summarize(channel, "joined", events));
+        } else if (type == PartEvent.class && log.isEnabled(Level.PART)) {
+            log.part(summarize(channel, "parted", events));
+        }
+    }
+
+    private String summarize(Channel channel, String action, ArrayList<Event<VIBotX>> events) {
+        StringBuilder sBuild = new StringBuilder();
+        if (channel != null) {
+            sBuild.append('(').append(channel.getName()).append(") ");
+        }
+        sBuild.append(events.size()).append(' ').append(action).append(':');
+        for (Event<VIBotX> event : events) {
+            User user = ((GenericUserEvent<VIBotX>) event).getUser();
+            sBuild.append(' ').append(user != null ? user.getNick() : "?");
+        }
+        return sBuild.toString();
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import static net.visualillusionsent.vibotx.VIBotX.log;
+
+/**
+ * Event Journal
+ * <p/>
+ * Appends every raw line received from the server, with the time it arrived, to a binary journal
+ * split into numbered segments ({@code segment-000001.vjl} ...). A segment starts with a magic number
+ * and the wall clock time of its first record; each record is then the milliseconds since the previous
+ * record and the UTF-8 line, both lengths written as variable length integers, so a typical line costs
+ * only two or three bytes over its text.
+ *
+ * @author Jason (darkdiplomat)
+ */
+final class EventJournal {
+    private static final int MAGIC = 0x56424A31; // VBJ1
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final long FLUSH_INTERVAL = 1000L;
+    private final File directory;
+    private final long segmentSize;
+    private DataOutputStream out;
+    private int segment;
+    private long written, lastStamp, lastFlush;
+
+    EventJournal(File directory, long segmentSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Unable to create journal directory " + directory.getAbsolutePath());
+        }
+        File[] existing = segments(directory);
+        if (existing.length > 0) {
+            segment = segmentNumber(existing[existing.length - 1]);
+        }
+    }
+
+    /**
+     * Appends a line to the journal, starting a new segment when the current one is full
+     *
+     * @param stamp
+     *         the wall clock time the line was received
+     * @param line
+     *         the raw line
+     */
+    final synchronized void append(long stamp, String line) {
+        try {
+            if (out == null || written >= segmentSize) {
+                roll(stamp);
+            }
+            byte[] bytes = line.getBytes(UTF8);
+            written += writeVarLong(out, Math.max(0L, stamp - lastStamp));
+            written += writeVarLong(out, bytes.length);
+            out.write(bytes);
+            written += bytes.length;
+            lastStamp = stamp;
+            if (stamp - lastFlush >= FLUSH_INTERVAL) {
+                out.flush();
+                lastFlush = stamp;
+            }
+        } catch (IOException ioex) {
+            log.error("Failed to write to the event journal, recording stopped", ioex);
+            close();
+        }
+    }
+
+    final synchronized void close() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException ioex) {
+                // Nothing left to do with it
+            }
+            out = null;
+            written = Long.MIN_VALUE; // Never roll again after a close
+        }
+    }
+
+    private void roll(long stamp) throws IOException {
+        if (out != null) {
+            out.close();
+        } else if (written == Long.MIN_VALUE) {
+            throw new IOException("Journal closed");
+        }
+        File file = new File(directory, String.format("segment-%06d.vjl", ++segment));
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 65536));
+        out.writeInt(MAGIC);
+        out.writeLong(stamp);
+        written = 12;
+        lastStamp = lastFlush = stamp;
+    }
+
+    /**
+     * Gets the segments of a journal in the order they were written
+     *
+     * @param directory
+     *         the journal directory
+     *
+     * @return the segment files
+     */
+    static File[] segments(File directory) {
+        File[] files = directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith("segment-") && name.endsWith(".vjl");
+            }
+        });
+        if (files == null) {
+            return new File[0];
+        }
+        Arrays.sort(files);
+        return files;
+    }
+
+    private static int segmentNumber(File file) {
+        String name = file.getName();
+        try {
+            return Integer.parseInt(name.substring(8, name.length() - 4));
+        } catch (NumberFormatException nfex) {
+            return 0;
+        }
+    }
+
+    private static int writeVarLong(DataOutputStream out, long value) throws IOException {
+        int bytes = 1;
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+            bytes++;
+        }
+        out.write((int) value);
+        return bytes;
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int read = in.read();
+            if (read < 0) {
+                throw new EOFException();
+            }
+            value |= (long) (read & 0x7F) << shift;
+            if ((read & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed journal record");
+    }
+
+    /**
+     * Reads the records of a journal back, segment by segment
+     */
+    static final class Reader implements AutoCloseable {
+        private final File[] segments;
+        private int next;
+        private DataInputStream in;
+        private long stamp;
+        private String line;
+
+        Reader(File directory) throws IOException {
+            this.segments = segments(directory);
+            if (segments.length == 0) {
+                throw new IOException("No journal segments in " + directory.getAbsolutePath());
+            }
+        }
+
+        /**
+         * Moves to the next record
+         *
+         * @return {@code true} if there was another record; {@code false} at the end of the journal
+         *
+         * @throws IOException
+         *         if a segment could not be read
+         */
+        final boolean next() throws IOException {
+            while (true) {
+                if (in == null) {
+                    if (next >= segments.length) {
+                        return false;
+                    }
+                    in = new DataInputStream(new BufferedInputStream(new FileInputStream(segments[next++]), 65536));
+                    if (in.readInt() != MAGIC) {
+                        throw new IOException(segments[next - 1].getName() + " is not a journal segment");
+                    }
+                    stamp = in.readLong();
+                }
+                long delta;
+                byte[] bytes;
+                try {
+                    delta = readVarLong(in);
+                    bytes = new byte[(int) readVarLong(in)];
+                    in.readFully(bytes);
+                } catch (EOFException eofex) {
+                    // End of this segment, or a record cut short by a crash which is dropped
+                    in.close();
+                    in = null;
+                    continue;
+                }
+                stamp += delta;
+                line = new String(bytes, UTF8);
+                return true;
+            }
+        }
+
+        /**
+         * Gets the wall clock time the current record was received
+         *
+         * @return the time in milliseconds
+         */
+        final long getStamp() {
+            return stamp;
+        }
+
+        /**
+         * Gets the raw line of the current record
+         *
+         * @return the line
+         */
+        final String getLine() {
+            return line;
+        }
+
+        @Override
+        public final void close() throws IOException {
+            if (in != null) {
+                in.close();
+                in = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx;
+
+import org.pircbotx.hooks.Event;
+import org.pircbotx.hooks.Listener;
+import org.pircbotx.hooks.events.ConnectEvent;
+import org.pircbotx.hooks.events.DisconnectEvent;
+import org.pircbotx.hooks.events.ServerPingEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+import static net.visualillusionsent.vibotx.VIBotX.log;
+
+/**
+ * Event Pipeline
+ * <p/>
+ * A preallocated, bounded multi-producer/single-consumer ring buffer between PircBotX and the next
+ * {@link Listener}. VIBotX installs a synchronous listener manager while the pipeline is enabled, so
+ * the PircBotX input thread publishes Events into the ring in the order they were read and a single
+ * consumer thread hands them on in that order; bursts (netsplits, mass joins) are absorbed without
+ * unbounded heap growth. When the ring is full the {@link OverflowPolicy} decides what happens;
+ * protocol critical Events ({@link ServerPingEvent}, {@link ConnectEvent} and {@link DisconnectEvent})
+ * are never dropped and always wait for room.
+ *
+ * @author Jason (darkdiplomat)
+ */
+final class EventPipeline implements Listener<VIBotX> {
+
+    /**
+     * What to do with a published Event when the ring is full
+     */
+    enum OverflowPolicy {
+        /**
+         * Wait for the consumer to make room, which holds up the input thread and so the reading of the socket
+         */
+        BLOCK,
+        /**
+         * Discard the oldest waiting non-critical Event to make room
+         */
+        DROP_OLDEST,
+        /**
+         * Discard the Event being published
+         */
+        DROP_NEWEST;
+
+        static OverflowPolicy fromString(String policy) {
+            try {
+                return valueOf(policy.trim().toUpperCase().replace('-', '_'));
+            } catch (IllegalArgumentException iaex) {
+                log.warning("Unknown pipeline overflow policy '" + policy + "', defaulting to BLOCK");
+                return BLOCK;
+            }
+        }
+    }
+
+    /**
+     * A preallocated ring entry; the fields are written before the volatile sequence that publishes them
+     */
+    private static final class Slot {
+        volatile long sequence = -1;
+        volatile Event<VIBotX> event;
+        boolean critical;
+        long publishedAt;
+    }
+
+    /* Clears a consumed or dropped Event only if a producer has not already reused the Slot */
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<Slot, Event> slotEvent = AtomicReferenceFieldUpdater.newUpdater(Slot.class, Event.class, "event");
+
+    private final Listener<VIBotX> next;
+    private final OverflowPolicy policy;
+    private final Slot[] ring;
+    private final int mask;
+    /* Next sequence to be claimed by a producer */
+    private final AtomicLong tail = new AtomicLong();
+    /* Next sequence to be consumed; also advanced by producers dropping the oldest Event */
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread consumer;
+    private volatile boolean consumerParked;
+    /* Written only by the consumer thread */
+    private volatile long consumed, latencyTotal, latencyMax;
+
+    EventPipeline(Listener<VIBotX> next, int capacity, OverflowPolicy policy) {
+        this.next = next;
+        this.policy = policy;
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1; // Round up to a power of two
+        this.ring = new Slot[size];
+        for (int index = 0; index < size; index++) {
+            ring[index] = new Slot();
+        }
+        this.mask = size - 1;
+        this.consumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                consume();
+            }
+        }, "VIBotX-EventPipeline");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @Override
+    public final void onEvent(Event<VIBotX> event) throws Exception {
+        boolean critical = isCritical(event);
+        int waits = 0;
+        while (true) {
+            long claim = tail.get();
+            long oldest = head.get();
+            if (claim - oldest >= ring.length) {
+                if (!critical && policy == OverflowPolicy.DROP_NEWEST) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                if (!critical && policy == OverflowPolicy.DROP_OLDEST) {
+                    Slot slot = ring[(int) oldest & mask];
+                    // Only a published, non-critical Event may be discarded; otherwise wait like BLOCK
+                    if (slot.sequence == oldest && !slot.critical) {
+                        Event<VIBotX> discard = slot.event;
+                        if (head.compareAndSet(oldest, oldest + 1)) {
+                            slotEvent.compareAndSet(slot, discard, null);
+                            dropped.incrementAndGet();
+                            continue;
+                        }
+                    }
+                }
+                backOff(waits++);
+                continue;
+            }
+            if (tail.compareAndSet(claim, claim + 1)) {
+                Slot slot = ring[(int) claim & mask];
+                slot.event = event;
+                slot.critical = critical;
+                slot.publishedAt = System.nanoTime();
+                slot.sequence = claim; // Publish
+                if (consumerParked) {
+                    LockSupport.unpark(consumer);
+                }
+                return;
+            }
+        }
+    }
+
+    private void consume() {
+        int idle = 0;
+        while (true) {
+            long sequence = head.get();
+            Slot slot = ring[(int) sequence & mask];
+            if (slot.sequence != sequence) {
+                if (idle++ < 100) {
+                    Thread.yield();
+                    continue;
+                }
+                consumerParked = true;
+                if (slot.sequence != sequence) { // Re-check so a publish racing the flag is not missed
+                    LockSupport.park(this); // Until a producer publishes and unparks us
+                }
+                consumerParked = false;
+                continue;
+            }
+            idle = 0;
+            Event<VIBotX> event = slot.event;
+            long publishedAt = slot.publishedAt;
+            if (!head.compareAndSet(sequence, sequence + 1)) {
+                continue; // A producer dropped it while we were reading
+            }
+            slotEvent.compareAndSet(slot, event, null); // Do not hold the Event until the ring wraps
+            long latency = System.nanoTime() - publishedAt;
+            latencyTotal += latency;
+            if (latency > latencyMax) {
+                latencyMax = latency;
+            }
+            consumed++;
+            try {
+                next.onEvent(event);
+            } catch (Throwable thrown) {
+                log.error("Exception while handling Event: " + event.getClass().getSimpleName(), thrown);
+            }
+        }
+    }
+
+    private static boolean isCritical(Event<VIBotX> event) {
+        return event instanceof ServerPingEvent || event instanceof ConnectEvent || event instanceof DisconnectEvent;
+    }
+
+    private static void backOff(int waits) {
+        if (waits < 50) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(100000L);
+        }
+    }
+
+    /**
+     * Gets the number of slots in the ring
+     *
+     * @return the capacity
+     */
+    final int getCapacity() {
+        return ring.length;
+    }
+
+    /**
+     * Gets the number of Events claimed but not yet consumed
+     *
+     * @return the occupancy
+     */
+    final long getOccupancy() {
+        return Math.max(0, tail.get() - head.get());
+    }
+
+    /**
+     * Gets the number of Events discarded by the {@link OverflowPolicy}
+     *
+     * @return the dropped count
+     */
+    final long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Gets the number of Events handed to the next listener
+     *
+     * @return the consumed count
+     */
+    final long getConsumedCount() {
+        return consumed;
+    }
+
+    /**
+     * Gets the mean time between an Event being published and consumed
+     *
+     * @return mean publish to consume latency in nanoseconds
+     */
+    final long getMeanLatencyNanos() {
+        long count = consumed;
+        return count == 0 ? 0 : latencyTotal / count;
+    }
+
+    /**
+     * Gets the longest time between an Event being published and consumed
+     *
+     * @return max publish to consume latency in nanoseconds
+     */
+    final long getMaxLatencyNanos() {
+        return latencyMax;
+    }
+
+    /**
+     * Gets a one line summary of the pipeline statistics, with latencies in milliseconds
+     *
+     * @return the statistics
+     */
+    final String getStatistics() {
+        return String.format("Pipeline policy=%s capacity=%d occupancy=%d consumed=%d dropped=%d mean=%.3f max=%.3f",
+                policy, getCapacity(), getOccupancy(), getConsumedCount(), getDroppedCount(),
+                getMeanLatencyNanos() / 1e6D, getMaxLatencyNanos() / 1e6D
+        );
+    }
+}
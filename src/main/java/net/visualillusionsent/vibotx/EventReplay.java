@@ -0,0 +1,128 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx;
+
+import net.visualillusionsent.vibotx.logging.LatencyHistogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static net.visualillusionsent.vibotx.VIBotX.log;
+
+/**
+ * Event Replay
+ * <p/>
+ * Feeds the lines of an {@link EventJournal} back through the bot's {@link org.pircbotx.InputParser},
+ * and so through {@link CommandParser} and the {@link net.visualillusionsent.vibotx.api.events.EventHandler},
+ * without a server. Lines are spaced as they were recorded ({@code real}), scaled by a factor such as
+ * {@code 10} for ten times faster, or sent as fast as possible ({@code max}). The throughput and the
+ * distribution of the time each line took to handle are logged at the end.
+ *
+ * @author Jason (darkdiplomat)
+ */
+final class EventReplay {
+    private final VIBotX bot;
+    private final File journal;
+    /* Recorded time is divided by this; 0 replays as fast as possible */
+    private final double speed;
+
+    EventReplay(VIBotX bot, File journal, String speed) {
+        this.bot = bot;
+        this.journal = journal;
+        this.speed = parseSpeed(speed);
+    }
+
+    /**
+     * Parses a replay speed
+     *
+     * @param speed
+     *         {@code real}, {@code max}, or a positive factor
+     *
+     * @return the speed factor; 0 for as fast as possible
+     */
+    static double parseSpeed(String speed) {
+        if (speed == null || speed.equalsIgnoreCase("real")) {
+            return 1.0D;
+        }
+        if (speed.equalsIgnoreCase("max")) {
+            return 0.0D;
+        }
+        try {
+            double factor = Double.parseDouble(speed);
+            if (factor > 0) {
+                return factor;
+            }
+        } catch (NumberFormatException nfex) {
+            // Fall through to the warning
+        }
+        log.warning("Unknown replay speed '" + speed + "', replaying in real time");
+        return 1.0D;
+    }
+
+    /**
+     * Replays the whole journal, blocking until done
+     *
+     * @return the dispatch latency of every replayed line
+     *
+     * @throws IOException
+     *         if the journal could not be read
+     */
+    final LatencyHistogram replay() throws IOException {
+        LatencyHistogram latency = new LatencyHistogram();
+        long lines = 0, failures = 0, firstStamp = -1;
+        long started = System.nanoTime();
+        log.info("Replaying event journal " + journal.getAbsolutePath() + (speed == 0 ? " as fast as possible" : " at " + speed + "x"));
+        try (EventJournal.Reader reader = new EventJournal.Reader(journal)) {
+            while (reader.next()) {
+                if (firstStamp < 0) {
+                    firstStamp = reader.getStamp();
+                }
+                if (speed > 0) {
+                    long due = started + (long) (TimeUnit.MILLISECONDS.toNanos(reader.getStamp() - firstStamp) / speed);
+                    long wait = due - System.nanoTime();
+                    if (wait > 0) {
+                        try {
+                            TimeUnit.NANOSECONDS.sleep(wait);
+                        } catch (InterruptedException iex) {
+                            log.warning("Replay interrupted after " + lines + " lines");
+                            break;
+                        }
+                    }
+                }
+                long start = System.nanoTime();
+                try {
+                    bot.getInputParser().handleLine(reader.getLine());
+                } catch (Exception ex) {
+                    if (failures++ == 0) {
+                        log.error("Failed to handle replayed line: " + reader.getLine(), ex);
+                    }
+                }
+                latency.record(System.nanoTime() - start);
+                lines++;
+            }
+        }
+        double seconds = (System.nanoTime() - started) / 1e9D;
+        log.info(String.format("Replayed %d lines in %.3fs (%.1f lines/s), %d failed", lines, seconds, seconds > 0 ? lines / seconds : 0.0D, failures));
+        log.info(String.format("Dispatch latency ms: mean=%.3f p50=%.3f p90=%.3f p99=%.3f p99.9=%.3f max=%.3f",
+                latency.getMeanNanos() / 1e6D, latency.getPercentileNanos(50) / 1e6D, latency.getPercentileNanos(90) / 1e6D,
+                latency.getPercentileNanos(99) / 1e6D, latency.getPercentileNanos(99.9) / 1e6D, latency.getMaxNanos() / 1e6D
+        ));
+        return latency;
+    }
+}
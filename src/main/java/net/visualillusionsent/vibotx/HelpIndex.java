@@ -0,0 +1,110 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx;
+
+import net.visualillusionsent.vibotx.api.command.BaseCommand;
+import net.visualillusionsent.vibotx.api.command.CommandDescriptor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+
+/**
+ * Help Index
+ * <p/>
+ * The help list, built once per registration change. Each {@link BaseCommand} appears once, ordered
+ * user, voice, op and then bot operator commands, and the notice lines are split into pages ahead of time
+ * for each of the eight combinations of voice, op and bot operator a viewer may have.
+ *
+ * @author Jason (darkdiplomat)
+ */
+final class HelpIndex {
+    private static final int PAGE_SIZE = 10;
+    static final HelpIndex EMPTY = new HelpIndex(Collections.<BaseCommand>emptyList());
+    /* Pages for each viewer permission mask; each page is its header followed by its lines */
+    private final String[][][] pages = new String[8][][];
+
+    private HelpIndex(Collection<BaseCommand> registered) {
+        ArrayList<BaseCommand> sorted = new ArrayList<>();
+        IdentityHashMap<BaseCommand, Boolean> seen = new IdentityHashMap<>();
+        for (BaseCommand cmd : registered) {
+            if (seen.put(cmd, Boolean.TRUE) == null) {
+                sorted.add(cmd); // Aliases map to the same command, list it once
+            }
+        }
+        Collections.sort(sorted, new Comparator<BaseCommand>() {
+            @Override
+            public int compare(BaseCommand one, BaseCommand two) {
+                int tier = required(one) - required(two);
+                return tier != 0 ? tier : one.getUsage().compareToIgnoreCase(two.getUsage());
+            }
+        });
+        String[] lines = new String[sorted.size()];
+        for (int index = 0; index < lines.length; index++) {
+            lines[index] = sorted.get(index).getDescriptor().getHelpLine();
+        }
+        for (int mask = 0; mask < pages.length; mask++) {
+            ArrayList<String> visible = new ArrayList<>();
+            for (int index = 0; index < lines.length; index++) {
+                if (canSee(sorted.get(index), mask)) {
+                    visible.add(lines[index]);
+                }
+            }
+            int pageMax = Math.max(1, (visible.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+            String[][] split = new String[pageMax][];
+            for (int page = 0; page < pageMax; page++) {
+                int start = page * PAGE_SIZE, end = Math.min(visible.size(), start + PAGE_SIZE);
+                String[] notices = new String[end - start + 1];
+                notices[0] = String.format("-- Page %d of %d --", page + 1, pageMax);
+                for (int line = start; line < end; line++) {
+                    notices[line - start + 1] = visible.get(line);
+                }
+                split[page] = notices;
+            }
+            pages[mask] = split;
+        }
+    }
+
+    static HelpIndex build(Collection<BaseCommand> registered) {
+        return new HelpIndex(registered);
+    }
+
+    /**
+     * Gets a page of help
+     *
+     * @param mask the viewer's {@link CommandDescriptor} permission bits
+     * @param page the page number, starting at 1; out of range pages give the first page
+     * @return the page header and lines to send
+     */
+    final String[] page(int mask, int page) {
+        String[][] split = pages[mask & 7];
+        return split[page < 1 || page > split.length ? 0 : page - 1];
+    }
+
+    /* Same filtering the help list has always applied */
+    private static boolean canSee(BaseCommand cmd, int mask) {
+        return (cmd.getDescriptor().getDeclaredPermissions() & ~mask) == 0;
+    }
+
+    /* The tier a command is grouped under; the highest declared bit */
+    private static int required(BaseCommand cmd) {
+        return Integer.highestOneBit(cmd.getDescriptor().getDeclaredPermissions());
+    }
+}
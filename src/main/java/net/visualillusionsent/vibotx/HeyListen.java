@@ -21,8 +21,10 @@ import net.visualillusionsent.vibotx.api.command.CommandEvent;
 import net.visualillusionsent.vibotx.api.command.ReturnStatus;
 import net.visualillusionsent.vibotx.api.events.EventHandler;
 import net.visualillusionsent.vibotx.configuration.ConfigurationManager;
+import net.visualillusionsent.vibotx.logging.Level;
 import org.pircbotx.Channel;
 import org.pircbotx.User;
+import org.pircbotx.hooks.Event;
 import org.pircbotx.hooks.ListenerAdapter;
 import org.pircbotx.hooks.events.*;
 
@@ -34,6 +36,77 @@ import static net.visualillusionsent.vibotx.VIBotX.log;
  * @author Jason (darkdiplomat)
  */
 final class HeyListen extends ListenerAdapter<VIBotX> {
+    private static final EventHandler handler = EventHandler.getInstance();
+    /* Event type ids resolved once so the callbacks below never look them up */
+    private static final int ACTION_EVENT = handler.getTypeId(ActionEvent.class);
+    private static final int CHANNEL_INFO_EVENT = handler.getTypeId(ChannelInfoEvent.class);
+    private static final int CONNECT_EVENT = handler.getTypeId(ConnectEvent.class);
+    private static final int DISCONNECT_EVENT = handler.getTypeId(DisconnectEvent.class);
+    private static final int FINGER_EVENT = handler.getTypeId(FingerEvent.class);
+    private static final int HALF_OP_EVENT = handler.getTypeId(HalfOpEvent.class);
+    private static final int INCOMING_CHAT_REQUEST_EVENT = handler.getTypeId(IncomingChatRequestEvent.class);
+    private static final int INCOMING_FILE_TRANSFER_EVENT = handler.getTypeId(IncomingFileTransferEvent.class);
+    private static final int INVITE_EVENT = handler.getTypeId(InviteEvent.class);
+    private static final int JOIN_EVENT = handler.getTypeId(JoinEvent.class);
+    private static final int KICK_EVENT = handler.getTypeId(KickEvent.class);
+    private static final int MESSAGE_EVENT = handler.getTypeId(MessageEvent.class);
+    private static final int MODE_EVENT = handler.getTypeId(ModeEvent.class);
+    private static final int MOTD_EVENT = handler.getTypeId(MotdEvent.class);
+    private static final int NICK_ALREADY_IN_USE_EVENT = handler.getTypeId(NickAlreadyInUseEvent.class);
+    private static final int NICK_CHANGE_EVENT = handler.getTypeId(NickChangeEvent.class);
+    private static final int NOTICE_EVENT = handler.getTypeId(NoticeEvent.class);
+    private static final int OP_EVENT = handler.getTypeId(OpEvent.class);
+    private static final int OWNER_EVENT = handler.getTypeId(OwnerEvent.class);
+    private static final int PART_EVENT = handler.getTypeId(PartEvent.class);
+    private static final int PING_EVENT = handler.getTypeId(PingEvent.class);
+    private static final int PRIVATE_MESSAGE_EVENT = handler.getTypeId(PrivateMessageEvent.class);
+    private static final int QUIT_EVENT = handler.getTypeId(QuitEvent.class);
+    private static final int REMOVE_CHANNEL_BAN_EVENT = handler.getTypeId(RemoveChannelBanEvent.class);
+    private static final int REMOVE_CHANNEL_KEY_EVENT = handler.getTypeId(RemoveChannelKeyEvent.class);
+    private static final int REMOVE_CHANNEL_LIMIT_EVENT = handler.getTypeId(RemoveChannelLimitEvent.class);
+    private static final int REMOVE_INVITE_ONLY_EVENT = handler.getTypeId(RemoveInviteOnlyEvent.class);
+    private static final int REMOVE_MODERATED_EVENT = handler.getTypeId(RemoveModeratedEvent.class);
+    private static final int REMOVE_NO_EXTERNAL_MESSAGES_EVENT = handler.getTypeId(RemoveNoExternalMessagesEvent.class);
+    private static final int REMOVE_PRIVATE_EVENT = handler.getTypeId(RemovePrivateEvent.class);
+    private static final int REMOVE_SECRET_EVENT = handler.getTypeId(RemoveSecretEvent.class);
+    private static final int REMOVE_TOPIC_PROTECTION_EVENT = handler.getTypeId(RemoveTopicProtectionEvent.class);
+    private static final int SERVER_PING_EVENT = handler.getTypeId(ServerPingEvent.class);
+    private static final int SERVER_RESPONSE_EVENT = handler.getTypeId(ServerResponseEvent.class);
+    private static final int SET_CHANNEL_BAN_EVENT = handler.getTypeId(SetChannelBanEvent.class);
+    private static final int SET_CHANNEL_KEY_EVENT = handler.getTypeId(SetChannelKeyEvent.class);
+    private static final int SET_CHANNEL_LIMIT_EVENT = handler.getTypeId(SetChannelLimitEvent.class);
+    private static final int SET_INVITE_ONLY_EVENT = handler.getTypeId(SetInviteOnlyEvent.class);
+    private static final int SET_MODERATED_EVENT = handler.getTypeId(SetModeratedEvent.class);
+    private static final int SET_NO_EXTERNAL_MESSAGES_EVENT = handler.getTypeId(SetNoExternalMessagesEvent.class);
+    private static final int SET_PRIVATE_EVENT = handler.getTypeId(SetPrivateEvent.class);
+    private static final int SET_SECRET_EVENT = handler.getTypeId(SetSecretEvent.class);
+    private static final int SET_TOPIC_PROTECTION_EVENT = handler.getTypeId(SetTopicProtectionEvent.class);
+    private static final int SOCKET_CONNECT_EVENT = handler.getTypeId(SocketConnectEvent.class);
+    private static final int SUPER_OP_EVENT = handler.getTypeId(SuperOpEvent.class);
+    private static final int TIME_EVENT = handler.getTypeId(TimeEvent.class);
+    private static final int TOPIC_EVENT = handler.getTypeId(TopicEvent.class);
+    private static final int UNKNOWN_EVENT = handler.getTypeId(UnknownEvent.class);
+    private static final int USER_LIST_EVENT = handler.getTypeId(UserListEvent.class);
+    private static final int USER_MODE_EVENT = handler.getTypeId(UserModeEvent.class);
+    private static final int VERSION_EVENT = handler.getTypeId(VersionEvent.class);
+    private static final int VOICE_EVENT = handler.getTypeId(VoiceEvent.class);
+    private static final int WHOIS_EVENT = handler.getTypeId(WhoisEvent.class);
+    /* Gathers membership and mode Events into batches; null unless event batching is enabled */
+    private final EventBatcher batcher;
+
+    HeyListen(EventBatcher batcher) {
+        this.batcher = batcher;
+    }
+
+    /**
+     * Passes an Event on to the plugins, skipping straight past types nobody listens to
+     */
+    private void pass(Event<VIBotX> event, int typeId) {
+        if (handler.hasListeners(typeId)) {
+            handler.passEvent(event, typeId);
+        }
+    }
+
     private String logFormat(Channel chan, User user, String... args) {
         StringBuilder sBuild = new StringBuilder();
         if (chan != null) {
@@ -76,89 +149,123 @@ final class HeyListen extends ListenerAdapter<VIBotX> {
 
     @Override
     public void onAction(ActionEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
-        log.action(logFormat(event.getChannel(), event.getUser(), event.getAction()));
+        pass(event, ACTION_EVENT);
+        if (log.isEnabled(Level.ACTION)) {
+            log.action(logFormat(event.getChannel(), event.getUser(), event.getAction()));
+        }
     }
 
     @Override
     public void onChannelInfo(ChannelInfoEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, CHANNEL_INFO_EVENT);
     }
 
     @Override
     public void onConnect(ConnectEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
-        log.connect(String.valueOf(event.getTimestamp()));
+        pass(event, CONNECT_EVENT);
+        if (log.isEnabled(Level.CONNECT)) {
+            log.connect(String.valueOf(event.getTimestamp()));
+        }
     }
 
     @Override
     public void onDisconnect(DisconnectEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
-        log.disconnect(String.valueOf(event.getTimestamp()));
+        pass(event, DISCONNECT_EVENT);
+        if (log.isEnabled(Level.DISCONNECT)) {
+            log.disconnect(String.valueOf(event.getTimestamp()));
+        }
     }
 
     @Override
     public void onFinger(FingerEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
-        log.finger(logFormat(event.getChannel(), event.getUser(), String.valueOf(event.getTimestamp())));
+        pass(event, FINGER_EVENT);
+        if (log.isEnabled(Level.FINGER)) {
+            log.finger(logFormat(event.getChannel(), event.getUser(), String.valueOf(event.getTimestamp())));
+        }
     }
 
     @Override
     public void onHalfOp(HalfOpEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, HALF_OP_EVENT);
     }
 
     @Override
     public void onIncomingChatRequest(IncomingChatRequestEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, INCOMING_CHAT_REQUEST_EVENT);
     }
 
     @Override
     public void onIncomingFileTransfer(IncomingFileTransferEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, INCOMING_FILE_TRANSFER_EVENT);
     }
 
     @Override
     public void onInvite(InviteEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
-        log.invite(logFormatStupidEvent(event.getChannel(), event.getUser(), String.valueOf(event.getTimestamp())));
+        pass(event, INVITE_EVENT);
+        if (log.isEnabled(Level.INVITE)) {
+            log.invite(logFormatStupidEvent(event.getChannel(), event.getUser(), String.valueOf(event.getTimestamp())));
+        }
     }
 
     @Override
     public void onJoin(JoinEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
-        log.join(logFormat(event.getChannel(), event.getUser()));
+        pass(event, JOIN_EVENT);
+        if (batcher != null) {
+            batcher.offer(event, event.getChannel(), Level.JOIN);
+        } else if (log.isEnabled(Level.JOIN)) {
+            log.join(logFormat(event.getChannel(), event.getUser()));
+        }
     }
 
     @Override
     public void onKick(KickEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
-        log.kick(logFormat(event.getChannel(), event.getUser(), event.getRecipient().getNick(), event.getReason()));
+        PermissionCache.invalidateChannel(event.getChannel());
+        pass(event, KICK_EVENT);
+        if (log.isEnabled(Level.KICK)) {
+            log.kick(logFormat(event.getChannel(), event.getUser(), event.getRecipient().getNick(), event.getReason()));
+        }
     }
 
     @Override
     public void onMessage(MessageEvent<VIBotX> event) throws Exception {
+        if (!CommandParser.isCommandPrefix(event.getMessage())) {
+            pass(event, MESSAGE_EVENT);
+            if (log.isEnabled(Level.MESSAGE)) {
+                log.message(logFormat(event.getChannel(), event.getUser(), event.getMessage()));
+            }
+            return;
+        }
         CommandEvent cmdEvent = new CommandEvent(event);
         ReturnStatus status = CommandParser.parseBotCommand(cmdEvent);
         switch (status) {
             case NOTCOMMAND:
-                EventHandler.getInstance().passEvent(event);
+                pass(event, MESSAGE_EVENT);
                 break;
+            case THROTTLED:
+                return; // Logging every throttled command would only feed the flood
             default:
-                log.command(logFormat(event.getChannel(), event.getUser(), cmdEvent.getCommand(), cmdEvent.getArgumentsAsString()));
+                if (log.isEnabled(Level.COMMAND)) {
+                    log.command(logFormat(event.getChannel(), event.getUser(), cmdEvent.getCommand(), cmdEvent.getArgumentsAsString()));
+                }
                 return;
         }
-        log.message(logFormat(event.getChannel(), event.getUser(), event.getMessage()));
+        if (log.isEnabled(Level.MESSAGE)) {
+            log.message(logFormat(event.getChannel(), event.getUser(), event.getMessage()));
+        }
     }
 
     @Override
     public void onMode(ModeEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        PermissionCache.invalidateChannel(event.getChannel());
+        pass(event, MODE_EVENT);
+        if (batcher != null) {
+            batcher.offer(event, event.getChannel(), null);
+        }
     }
 
     @Override
     public void onMotd(MotdEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, MOTD_EVENT);
     }
 
     @Override
@@ -168,212 +275,244 @@ final class HeyListen extends ListenerAdapter<VIBotX> {
             bot.msgNickServ("GHOST " + bot.getNick());
             bot.sendIRC().changeNick(bot.getNick());
         }
-        EventHandler.getInstance().passEvent(event);
+        pass(event, NICK_ALREADY_IN_USE_EVENT);
         //TODO: Should event get passed?
     }
 
     @Override
     public void onNickChange(NickChangeEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        PermissionCache.invalidateUser(event.getOldNick());
+        pass(event, NICK_CHANGE_EVENT);
     }
 
     @Override
     public void onNotice(NoticeEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
-        log.notice(logFormat(event.getChannel(), event.getUser(), event.getNotice()));
+        pass(event, NOTICE_EVENT);
+        if (log.isEnabled(Level.NOTICE)) {
+            log.notice(logFormat(event.getChannel(), event.getUser(), event.getNotice()));
+        }
     }
 
     @Override
     public void onOp(OpEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, OP_EVENT);
     }
 
     @Override
     public void onOwner(OwnerEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, OWNER_EVENT);
     }
 
     @Override
     public void onPart(PartEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
-        log.part(logFormat(event.getChannel(), event.getUser(), event.getReason()));
+        PermissionCache.invalidateChannel(event.getChannel());
+        pass(event, PART_EVENT);
+        if (batcher != null) {
+            batcher.offer(event, event.getChannel(), Level.PART);
+        } else if (log.isEnabled(Level.PART)) {
+            log.part(logFormat(event.getChannel(), event.getUser(), event.getReason()));
+        }
     }
 
     @Override
     public void onPing(PingEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
-        log.ping(logFormat(event.getChannel(), event.getUser(), event.getPingValue()));
+        pass(event, PING_EVENT);
+        if (log.isEnabled(Level.PING)) {
+            log.ping(logFormat(event.getChannel(), event.getUser(), event.getPingValue()));
+        }
     }
 
     @Override
     public void onPrivateMessage(PrivateMessageEvent<VIBotX> event) throws Exception {
+        if (!CommandParser.isCommandPrefix(event.getMessage())) {
+            pass(event, PRIVATE_MESSAGE_EVENT);
+            if (log.isEnabled(Level.PRIVATEMESSAGE)) {
+                log.privatemessage(logFormat(null, event.getUser(), event.getMessage()));
+            }
+            return;
+        }
         CommandEvent cmdEvent = new CommandEvent(event);
         ReturnStatus status = CommandParser.parseBotCommand(cmdEvent);
         switch (status) {
             case NOTCOMMAND:
-                EventHandler.getInstance().passEvent(event);
+                pass(event, PRIVATE_MESSAGE_EVENT);
                 break;
+            case THROTTLED:
+                return; // Logging every throttled command would only feed the flood
             default:
-                log.command(logFormat(null, event.getUser(), cmdEvent.getCommand(), cmdEvent.getArgumentsAsString()));
+                if (log.isEnabled(Level.COMMAND)) {
+                    log.command(logFormat(null, event.getUser(), cmdEvent.getCommand(), cmdEvent.getArgumentsAsString()));
+                }
                 return;
         }
-        EventHandler.getInstance().passEvent(event);
-        log.privatemessage(logFormat(null, event.getUser(), event.getMessage()));
+        if (log.isEnabled(Level.PRIVATEMESSAGE)) {
+            log.privatemessage(logFormat(null, event.getUser(), event.getMessage()));
+        }
     }
 
     @Override
     public void onQuit(QuitEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        PermissionCache.invalidateUser(event.getUser().getNick());
+        pass(event, QUIT_EVENT);
+        if (batcher != null) {
+            batcher.offer(event, null, null);
+        }
     }
 
     @Override
     public void onRemoveChannelBan(RemoveChannelBanEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, REMOVE_CHANNEL_BAN_EVENT);
     }
 
     @Override
     public void onRemoveChannelKey(RemoveChannelKeyEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, REMOVE_CHANNEL_KEY_EVENT);
     }
 
     @Override
     public void onRemoveChannelLimit(RemoveChannelLimitEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, REMOVE_CHANNEL_LIMIT_EVENT);
     }
 
     @Override
     public void onRemoveInviteOnly(RemoveInviteOnlyEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, REMOVE_INVITE_ONLY_EVENT);
     }
 
     @Override
     public void onRemoveModerated(RemoveModeratedEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, REMOVE_MODERATED_EVENT);
     }
 
     @Override
     public void onRemoveNoExternalMessages(RemoveNoExternalMessagesEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, REMOVE_NO_EXTERNAL_MESSAGES_EVENT);
     }
 
     @Override
     public void onRemovePrivate(RemovePrivateEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, REMOVE_PRIVATE_EVENT);
     }
 
     @Override
     public void onRemoveSecret(RemoveSecretEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, REMOVE_SECRET_EVENT);
     }
 
     @Override
     public void onRemoveTopicProtection(RemoveTopicProtectionEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, REMOVE_TOPIC_PROTECTION_EVENT);
     }
 
     @Override
     public void onServerPing(ServerPingEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
-        log.ping("SERVER: " + event.getResponse());
+        pass(event, SERVER_PING_EVENT);
+        if (log.isEnabled(Level.PING)) {
+            log.ping("SERVER: " + event.getResponse());
+        }
     }
 
     @Override
     public void onServerResponse(ServerResponseEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, SERVER_RESPONSE_EVENT);
     }
 
     @Override
     public void onSetChannelBan(SetChannelBanEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, SET_CHANNEL_BAN_EVENT);
     }
 
     @Override
     public void onSetChannelKey(SetChannelKeyEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, SET_CHANNEL_KEY_EVENT);
     }
 
     @Override
     public void onSetChannelLimit(SetChannelLimitEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, SET_CHANNEL_LIMIT_EVENT);
     }
 
     @Override
     public void onSetInviteOnly(SetInviteOnlyEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, SET_INVITE_ONLY_EVENT);
     }
 
     @Override
     public void onSetModerated(SetModeratedEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, SET_MODERATED_EVENT);
     }
 
     @Override
     public void onSetNoExternalMessages(SetNoExternalMessagesEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, SET_NO_EXTERNAL_MESSAGES_EVENT);
     }
 
     @Override
     public void onSetPrivate(SetPrivateEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, SET_PRIVATE_EVENT);
     }
 
     @Override
     public void onSetSecret(SetSecretEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, SET_SECRET_EVENT);
     }
 
     @Override
     public void onSetTopicProtection(SetTopicProtectionEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, SET_TOPIC_PROTECTION_EVENT);
     }
 
     @Override
     public void onSocketConnect(SocketConnectEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, SOCKET_CONNECT_EVENT);
     }
 
     @Override
     public void onSuperOp(SuperOpEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, SUPER_OP_EVENT);
     }
 
     @Override
     public void onTime(TimeEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, TIME_EVENT);
     }
 
     @Override
     public void onTopic(TopicEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, TOPIC_EVENT);
     }
 
     @Override
     public void onUnknown(UnknownEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, UNKNOWN_EVENT);
     }
 
     @Override
     public void onUserList(UserListEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        PermissionCache.invalidateChannel(event.getChannel());
+        pass(event, USER_LIST_EVENT);
+        if (batcher != null) {
+            batcher.offer(event, event.getChannel(), null);
+        }
     }
 
     @Override
     public void onUserMode(UserModeEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, USER_MODE_EVENT);
     }
 
     @Override
     public void onVersion(VersionEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, VERSION_EVENT);
     }
 
     @Override
     public void onVoice(VoiceEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, VOICE_EVENT);
     }
 
     @Override
     public void onWhois(WhoisEvent<VIBotX> event) throws Exception {
-        EventHandler.getInstance().passEvent(event);
+        pass(event, WHOIS_EVENT);
     }
 }
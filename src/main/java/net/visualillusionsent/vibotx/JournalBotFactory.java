@@ -0,0 +1,88 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx;
+
+import org.pircbotx.Configuration;
+import org.pircbotx.InputParser;
+import org.pircbotx.PircBotX;
+import org.pircbotx.exception.IrcException;
+import org.pircbotx.output.OutputRaw;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Journal Bot Factory
+ * <p/>
+ * Supplies PircBotX with an {@link InputParser} that appends every received line to an
+ * {@link EventJournal} before parsing it, and for replays an {@link OutputRaw} that counts and drops
+ * outgoing lines since there is no server to send them to.
+ *
+ * @author Jason (darkdiplomat)
+ */
+final class JournalBotFactory extends Configuration.BotFactory {
+    private final EventJournal journal;
+    private final boolean replay;
+    private final AtomicLong dropped = new AtomicLong();
+
+    JournalBotFactory(EventJournal journal, boolean replay) {
+        this.journal = journal;
+        this.replay = replay;
+    }
+
+    @Override
+    public InputParser createInputParser(PircBotX bot) {
+        if (journal == null) {
+            return super.createInputParser(bot);
+        }
+        return new InputParser(bot) {
+            @Override
+            public void handleLine(String line) throws IOException, IrcException {
+                journal.append(System.currentTimeMillis(), line);
+                super.handleLine(line);
+            }
+        };
+    }
+
+    @Override
+    public OutputRaw createOutputRaw(PircBotX bot) {
+        if (!replay) {
+            return super.createOutputRaw(bot);
+        }
+        return new OutputRaw(bot, 0) {
+            @Override
+            public void rawLine(String line) {
+                dropped.incrementAndGet();
+            }
+
+            @Override
+            public void rawLineNow(String line, boolean resetDelay) {
+                dropped.incrementAndGet();
+            }
+        };
+    }
+
+    /**
+     * Gets the number of outgoing lines dropped during a replay
+     *
+     * @return the dropped line count
+     */
+    final long getDroppedCount() {
+        return dropped.get();
+    }
+}
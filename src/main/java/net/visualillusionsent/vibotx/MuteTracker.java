@@ -20,15 +20,20 @@ package net.visualillusionsent.vibotx;
 import org.pircbotx.Channel;
 import org.pircbotx.User;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * Tracks the channels the bot is muted in and the users it ignores per channel
+ * <p/>
+ * Safe to use from commands running in parallel.
+ *
  * @author Jason (darkdiplomat)
  */
 public final class MuteTracker {
-    private static final ArrayList<Channel> botMutedChans = new ArrayList<>();
-    private static final HashMap<Channel, ArrayList<User>> muted_users = new HashMap<>();
+    private static final Set<Channel> botMutedChans = Collections.newSetFromMap(new ConcurrentHashMap<Channel, Boolean>());
+    private static final ConcurrentHashMap<Channel, Set<User>> muted_users = new ConcurrentHashMap<>();
 
     public static boolean botMuteIn(Channel channel) {
         return botMutedChans.contains(channel);
@@ -36,31 +41,37 @@ public final class MuteTracker {
 
     public static void muteBotIn(Channel channel) {
         botMutedChans.add(channel);
+        PermissionCache.invalidateChannel(channel);
     }
 
     public static void unmuteBotIn(Channel channel) {
         botMutedChans.remove(channel);
+        PermissionCache.invalidateChannel(channel);
     }
 
     public static boolean userMuteIn(User user, Channel channel) {
-        if (!muted_users.containsKey(channel)) {
-            muted_users.put(channel, new ArrayList<User>());
-            return false;
-        }
-        return muted_users.get(channel).contains(user);
+        Set<User> muted = muted_users.get(channel);
+        return muted != null && muted.contains(user);
     }
 
     public static void muteUserIn(User user, Channel channel) {
-        if (!muted_users.containsKey(channel)) {
-            muted_users.put(channel, new ArrayList<User>());
+        Set<User> muted = muted_users.get(channel);
+        if (muted == null) {
+            Set<User> created = Collections.newSetFromMap(new ConcurrentHashMap<User, Boolean>());
+            muted = muted_users.putIfAbsent(channel, created);
+            if (muted == null) {
+                muted = created;
+            }
         }
-        muted_users.get(channel).add(user);
+        muted.add(user);
+        PermissionCache.invalidateChannel(channel);
     }
 
     public static void unmuteUserIn(User user, Channel channel) {
-        if (!muted_users.containsKey(channel)) {
-            return;
+        Set<User> muted = muted_users.get(channel);
+        if (muted != null) {
+            muted.remove(user);
         }
-        muted_users.get(channel).remove(user);
+        PermissionCache.invalidateChannel(channel);
     }
 }
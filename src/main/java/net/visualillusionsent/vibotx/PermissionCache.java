@@ -0,0 +1,171 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx;
+
+import net.visualillusionsent.vibotx.api.command.PermissionContext;
+import net.visualillusionsent.vibotx.configuration.BotOpsManager;
+import net.visualillusionsent.vibotx.configuration.ConfigurationManager;
+import org.pircbotx.Channel;
+import org.pircbotx.User;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Permission Cache
+ * <p/>
+ * Remembers {@link PermissionContext}s for a short while, keyed by channel and then {@code nick!login@host}.
+ * Entries are dropped when the user changes nick or leaves, when modes, user lists or mutes change in the channel,
+ * and all at once when bot-ops.txt is reloaded. Expired entries are removed when next looked up, and a sweeper
+ * thread clears out the ones never looked up again.
+ *
+ * @author Jason (darkdiplomat)
+ */
+public final class PermissionCache {
+    /* Channel name, or empty for private messages, to user key to cached context */
+    private static final ConcurrentHashMap<String, ConcurrentHashMap<String, Cached>> channels = new ConcurrentHashMap<>();
+    private static volatile int generation = -1;
+
+    private PermissionCache() {
+    }
+
+    /**
+     * Gets the {@link PermissionContext} of a {@link User}, working it out if it is not cached
+     *
+     * @param user    the {@link User}
+     * @param channel the {@link Channel}; {@code null} for private messages
+     * @return the {@link PermissionContext}
+     */
+    public static PermissionContext get(User user, Channel channel) {
+        long ttl = ConfigurationManager.getPermissionCacheTtl();
+        if (ttl <= 0) {
+            return PermissionContext.resolve(user, channel);
+        }
+        Sweeper.start();
+        BotOpsManager.reloadIfChanged();
+        if (generation != BotOpsManager.getGeneration()) {
+            generation = BotOpsManager.getGeneration();
+            channels.clear();
+        }
+        String chanKey = channel == null ? "" : channel.getName();
+        ConcurrentHashMap<String, Cached> users = channels.get(chanKey);
+        if (users == null) {
+            ConcurrentHashMap<String, Cached> created = new ConcurrentHashMap<>();
+            users = channels.putIfAbsent(chanKey, created);
+            if (users == null) {
+                users = created;
+            }
+        }
+        String userKey = user.getNick() + '!' + user.getLogin() + '@' + user.getHostmask();
+        long now = TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+        Cached cached = users.get(userKey);
+        if (cached != null) {
+            if (now - cached.expires < 0) {
+                return cached.context;
+            }
+            users.remove(userKey, cached);
+        }
+        PermissionContext context = PermissionContext.resolve(user, channel);
+        users.put(userKey, new Cached(context, now + ttl));
+        return context;
+    }
+
+    /**
+     * Drops the cached permissions of everyone in a {@link Channel}
+     *
+     * @param channel the {@link Channel}
+     */
+    public static void invalidateChannel(Channel channel) {
+        if (channel != null) {
+            channels.remove(channel.getName());
+        }
+    }
+
+    /**
+     * Drops the cached permissions of a nick in every channel
+     *
+     * @param nick the nick
+     */
+    public static void invalidateUser(String nick) {
+        String prefix = nick + '!';
+        for (ConcurrentHashMap<String, Cached> users : channels.values()) {
+            Iterator<String> keyIterator = users.keySet().iterator();
+            while (keyIterator.hasNext()) {
+                if (keyIterator.next().startsWith(prefix)) {
+                    keyIterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes expired entries, and the maps of channels left without any, every TTL (at least once a second)
+     */
+    private static void sweep() {
+        long now = TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+        for (Map.Entry<String, ConcurrentHashMap<String, Cached>> channel : channels.entrySet()) {
+            ConcurrentHashMap<String, Cached> users = channel.getValue();
+            for (Map.Entry<String, Cached> entry : users.entrySet()) {
+                if (now - entry.getValue().expires >= 0) {
+                    users.remove(entry.getKey(), entry.getValue());
+                }
+            }
+            if (users.isEmpty()) {
+                channels.remove(channel.getKey(), users);
+            }
+        }
+    }
+
+    /* Initialization on Demand Holder idiom, so the sweeper only runs once the cache is in use */
+    private static final class Sweeper {
+        private static final Thread THREAD = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (true) {
+                    try {
+                        Thread.sleep(Math.max(1000L, ConfigurationManager.getPermissionCacheTtl()));
+                    } catch (InterruptedException iex) {
+                        return;
+                    }
+                    sweep();
+                }
+            }
+        }, "VIBotX-PermissionCache");
+
+        static {
+            THREAD.setDaemon(true);
+            THREAD.start();
+        }
+
+        static void start() {
+            // Loading the class starts the thread
+        }
+    }
+
+    private static final class Cached {
+        private final PermissionContext context;
+        private final long expires;
+
+        private Cached(PermissionContext context, long expires) {
+            this.context = context;
+            this.expires = expires;
+        }
+    }
+}
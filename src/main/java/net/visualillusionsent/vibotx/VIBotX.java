@@ -31,6 +31,8 @@ import org.pircbotx.Configuration;
 import org.pircbotx.IdentServer;
 import org.pircbotx.PircBotX;
 import org.pircbotx.exception.IrcException;
+import org.pircbotx.hooks.Listener;
+import org.pircbotx.hooks.managers.ListenerManager;
 
 import java.awt.*;
 import java.io.File;
@@ -53,6 +55,10 @@ public final class VIBotX extends PircBotX implements Plugin {
     private static JavaPluginLoader jpLoader;
     private static ProgramChecker pCheck;
     private static Manifest mf;
+    private static EventPipeline pipeline;
+    private static ChannelLanes lanes;
+    private static EventBatcher batcher;
+    private static EventJournal journal;
 
     static {
         String universe_path = System.getProperty("vibotx.universe.path", ".");
@@ -72,6 +78,9 @@ public final class VIBotX extends PircBotX implements Plugin {
                 if (jpLoader != null) {
                     jpLoader.disableAllPlugins();
                 }
+                if (journal != null) {
+                    journal.close();
+                }
                 log.close();
             }
         });
@@ -114,8 +123,7 @@ public final class VIBotX extends PircBotX implements Plugin {
         Configuration.Builder<VIBotX> cfgbuild = new Configuration.Builder<VIBotX>()
                 .setVersion("VIBotX " + getVersionStatic() + ", Visual Illusions IRC Bot")
                 .setRealName("VIBotX " + getVersionStatic() + ", Visual Illusions IRC Bot")
-                .setShutdownHookEnabled(true)
-                .addListener(new HeyListen());
+                .setShutdownHookEnabled(true);
         try {
             ConfigurationManager.loadConfig(universe, cfgbuild);
         } catch (FirstTimeRunException ftrex) {
@@ -127,6 +135,47 @@ public final class VIBotX extends PircBotX implements Plugin {
             System.exit(830);
         }
 
+        String replayPath = null, replaySpeed = null;
+        for (int index = 0; index + 1 < args.length; index++) {
+            if (args[index].equals("--replay")) {
+                replayPath = args[++index];
+            } else if (args[index].equals("--speed")) {
+                replaySpeed = args[++index];
+            }
+        }
+        if (replayPath != null) {
+            // Dispatch on the replaying thread so each line's handling time can be measured
+            cfgbuild.setListenerManager(synchronousListenerManager());
+            cfgbuild.setIdentServerEnabled(false);
+        } else if (ConfigurationManager.useEventJournal()) {
+            try {
+                journal = new EventJournal(new File(universe, "journal/"), ConfigurationManager.getEventJournalSegmentSize());
+            } catch (IOException ioex) {
+                log.error("Unable to open the event journal, events will not be recorded", ioex);
+            }
+        }
+        JournalBotFactory botFactory = new JournalBotFactory(journal, replayPath != null);
+        cfgbuild.setBotFactory(botFactory);
+
+        if (ConfigurationManager.useEventBatching()) {
+            batcher = new EventBatcher(ConfigurationManager.getEventBatchWindow(), ConfigurationManager.getEventBatchSize());
+        }
+        Listener<VIBotX> listener = new HeyListen(batcher);
+        if (ConfigurationManager.getEventLanes() > 1) {
+            lanes = new ChannelLanes(listener, ConfigurationManager.getEventLanes(), ConfigurationManager.getEventLaneCapacity());
+            listener = lanes;
+        }
+        if (ConfigurationManager.useEventPipeline()) {
+            pipeline = new EventPipeline(listener, ConfigurationManager.getEventPipelineCapacity(), EventPipeline.OverflowPolicy.fromString(ConfigurationManager.getEventPipelineOverflow()));
+            listener = pipeline;
+        }
+        if (lanes != null || pipeline != null) {
+            // The default manager calls listeners from a thread pool, which would hand Events on out of order and
+            // leave a blocked pipeline parking pool threads instead of slowing down the socket reader
+            cfgbuild.setListenerManager(synchronousListenerManager());
+        }
+        cfgbuild.addListener(listener);
+
         if (cfgbuild.isIdentServerEnabled()) {
             try {
                 IdentServer.startServer(); // Need to boot this up in order to use it...
@@ -139,6 +188,17 @@ public final class VIBotX extends PircBotX implements Plugin {
         bot = new VIBotX(cfgbuild.buildConfiguration());
         jpLoader.scanPlugins();
         jpLoader.enableAllPlugins();
+        if (replayPath != null) {
+            bot.setNick(bot.getConfiguration().getName());
+            try {
+                new EventReplay(bot, new File(replayPath), replaySpeed).replay();
+                log.info("Dropped " + botFactory.getDroppedCount() + " outgoing lines during the replay");
+            } catch (IOException ioex) {
+                log.error("Unable to replay event journal " + replayPath, ioex);
+            }
+            System.exit(0);
+            return;
+        }
         try {
             bot.connect();
         } catch (IrcException | IOException ex) {
@@ -146,6 +206,18 @@ public final class VIBotX extends PircBotX implements Plugin {
         }
     }
 
+    /**
+     * Creates a {@link ListenerManager} that calls listeners on the thread reading the Events, in the order they were read
+     * <p/>
+     * Used while replaying and to feed the {@link EventPipeline} and {@link ChannelLanes}; must be set before any listener is added.
+     *
+     * @return the listener manager
+     */
+    @SuppressWarnings("deprecation") // Still the only synchronous manager in PircBotX 2.0
+    private static ListenerManager<VIBotX> synchronousListenerManager() {
+        return new org.pircbotx.hooks.managers.GenericListenerManager<VIBotX>();
+    }
+
     public final void msgNickServ(String message) {
         bot.sendIRC().message("NICKSERV", message);
     }
@@ -158,6 +230,26 @@ public final class VIBotX extends PircBotX implements Plugin {
         return jpLoader;
     }
 
+    /**
+     * Gets the statistics of the {@link EventPipeline} buffering incoming Events
+     *
+     * @return the pipeline statistics; {@code null} if not enabled
+     */
+    public static String getEventPipelineStatistics() {
+        EventPipeline current = pipeline;
+        return current == null ? null : current.getStatistics();
+    }
+
+    /**
+     * Gets the statistics of the {@link ChannelLanes} spreading Events over worker threads
+     *
+     * @return the lane statistics; {@code null} if not enabled
+     */
+    public static String getChannelLaneStatistics() {
+        ChannelLanes current = lanes;
+        return current == null ? null : current.getStatistics();
+    }
+
     public static String getProgramStatusMessage() {
         ProgramChecker.Status status = pCheck.checkStatus();
         switch (status) {
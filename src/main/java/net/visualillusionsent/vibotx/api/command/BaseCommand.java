@@ -23,6 +23,8 @@ import net.visualillusionsent.vibotx.CommandParser;
 import net.visualillusionsent.vibotx.api.plugin.Plugin;
 import org.pircbotx.User;
 
+import java.util.List;
+
 /**
  * Base Command form
  * <p/>
@@ -59,6 +61,11 @@ public abstract class BaseCommand {
      */
     private final Plugin plugin;
 
+    /**
+     * The {@link BotCommand} annotation compiled into plain fields
+     */
+    private final CommandDescriptor descriptor;
+
     /**
      * Constructs a new {@code BaseCommand} object
      * <p/>
@@ -71,6 +78,7 @@ public abstract class BaseCommand {
             throw new CommandCreationException("BotCommand annotation not found!");
         } else {
             cmd = getClass().getAnnotation(BotCommand.class);
+            descriptor = new CommandDescriptor(cmd);
         }
         if (plugin == null) {
             throw new CommandCreationException("Plugin cannot be null");
@@ -85,20 +93,21 @@ public abstract class BaseCommand {
      * @return the name of the {@code BaseCommand}
      */
     public final String getName() {
-        return cmd.main();
+        return descriptor.getName();
     }
 
     public final char getAllowedPrefix() {
-        return cmd.prefix();
+        return descriptor.getPrefix();
     }
 
     /**
      * Gets all the aliases for the {@code BaseCommand}
      *
-     * @return the aliases for the {@code BaseCommand}
+     * @return a copy of the aliases for the {@code BaseCommand}; empty if there are none
      */
     public final String[] getAliases() {
-        return cmd.aliases().clone();
+        List<String> aliases = descriptor.getAliases();
+        return aliases.toArray(new String[aliases.size()]);
     }
 
     /**
@@ -107,7 +116,7 @@ public abstract class BaseCommand {
      * @return the usage for the {@code BaseCommand}
      */
     public final String getUsage() {
-        return cmd.usage();
+        return descriptor.getUsage();
     }
 
     /**
@@ -116,7 +125,7 @@ public abstract class BaseCommand {
      * @return the description for the {@code BaseCommand}
      */
     public final String getDescription() {
-        return cmd.desc();
+        return descriptor.getDescription();
     }
 
     /**
@@ -125,7 +134,7 @@ public abstract class BaseCommand {
      * @return {@code true} if requires {@code Voice}
      */
     public final boolean requiresVoice() {
-        return cmd.voice();
+        return (descriptor.getDeclaredPermissions() & CommandDescriptor.VOICE) != 0;
     }
 
     /**
@@ -134,7 +143,7 @@ public abstract class BaseCommand {
      * @return {@code true} if requires {@code Op}
      */
     public final boolean requiresOp() {
-        return cmd.op();
+        return (descriptor.getDeclaredPermissions() & CommandDescriptor.OP) != 0;
     }
 
     /**
@@ -143,7 +152,7 @@ public abstract class BaseCommand {
      * @return {@code true} if requires {@code BotOwner}
      */
     public final boolean requiresOwner() {
-        return cmd.botOp();
+        return (descriptor.getDeclaredPermissions() & CommandDescriptor.BOT_OP) != 0;
     }
 
     /**
@@ -152,7 +161,52 @@ public abstract class BaseCommand {
      * @return {@code true} if channel only; {@code false} otherwise
      */
     public final boolean privateMessageAllowed() {
-        return cmd.privateAllowed();
+        return descriptor.isPrivateAllowed();
+    }
+
+    /**
+     * Gets how the {@code BaseCommand} may run alongside other commands
+     *
+     * @return the {@link CommandConcurrency} policy
+     */
+    public final CommandConcurrency getConcurrency() {
+        return descriptor.getConcurrency();
+    }
+
+    /**
+     * Gets the milliseconds the {@code BaseCommand} may run for on a worker thread
+     *
+     * @return the timeout; 0 for the configured default, negative for no deadline
+     */
+    public final long getTimeout() {
+        return descriptor.getTimeout();
+    }
+
+    /**
+     * Gets the tokens a use of the {@code BaseCommand} takes from the rate limits
+     *
+     * @return the cost; 0 if never throttled
+     */
+    public final int getCost() {
+        return descriptor.getCost();
+    }
+
+    /**
+     * Gets the milliseconds the responses of the {@code BaseCommand} are cached for
+     *
+     * @return the cache TTL; 0 if never cached
+     */
+    public final long getCacheTtl() {
+        return descriptor.getCacheTtl();
+    }
+
+    /**
+     * Gets what cached responses of the {@code BaseCommand} are keyed on
+     *
+     * @return the {@link CacheKey} parts
+     */
+    public final CacheKey[] getCacheKey() {
+        return descriptor.getCacheKey();
     }
 
     /**
@@ -162,7 +216,16 @@ public abstract class BaseCommand {
      * @return {@code true} if in range; {@code false} if not
      */
     public boolean argumentsInRange(int paramCount) {
-        return cmd.minParam() <= paramCount && cmd.maxParam() >= paramCount;
+        return descriptor.getMinParam() <= paramCount && descriptor.getMaxParam() >= paramCount;
+    }
+
+    /**
+     * Gets the {@link BotCommand} settings of the {@code BaseCommand}, read once at creation
+     *
+     * @return the {@link CommandDescriptor}
+     */
+    public final CommandDescriptor getDescriptor() {
+        return descriptor;
     }
 
     /**
@@ -180,7 +243,7 @@ public abstract class BaseCommand {
      * @param user {@link User} using the command
      */
     public void onBadSyntax(User user) {
-        user.send().notice(cmd.usage());
+        user.send().notice(descriptor.getUsage());
     }
 
     /**
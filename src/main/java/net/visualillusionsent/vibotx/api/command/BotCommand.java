@@ -89,4 +89,31 @@ public @interface BotCommand {
      * Whether the {@link BaseCommand} can be sent via PrivateMessage
      */
     boolean privateAllowed() default true;
+
+    /**
+     * How the {@link BaseCommand} may run alongside other commands, default: serial per channel
+     */
+    CommandConcurrency concurrency() default CommandConcurrency.CHANNEL;
+
+    /**
+     * The milliseconds the {@link BaseCommand} may run for on a worker thread before it is interrupted,
+     * default: 0 for the configured default, negative for no deadline
+     */
+    long timeoutMs() default 0;
+
+    /**
+     * The tokens a use of the {@link BaseCommand} takes from the rate limits, default: 1, 0 to never be throttled
+     */
+    int cost() default 1;
+
+    /**
+     * The milliseconds the responses of the {@link BaseCommand} are replayed for instead of running it again,
+     * default: 0 to never cache; only for commands whose output depends on nothing but the {@link #cacheKey()}
+     */
+    long cacheTtl() default 0;
+
+    /**
+     * What the cached responses are keyed on, default: channel, permission tier and arguments
+     */
+    CacheKey[] cacheKey() default {CacheKey.CHANNEL, CacheKey.TIER, CacheKey.ARGUMENTS};
 }
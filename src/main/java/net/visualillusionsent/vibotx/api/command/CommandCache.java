@@ -0,0 +1,209 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx.api.command;
+
+import net.visualillusionsent.vibotx.configuration.ConfigurationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Command Response Cache
+ * <p/>
+ * Holds the responses of {@link BaseCommand}s declaring a {@link BotCommand#cacheTtl()}, so a repeated
+ * invocation within the TTL is answered by replaying them instead of running the command again.
+ * Least recently used responses are dropped once the cache is full, and the whole cache is cleared
+ * whenever a plugin is enabled or disabled.
+ *
+ * @author Jason (darkdiplomat)
+ */
+public final class CommandCache {
+    private final int capacity;
+    private final LinkedHashMap<Key, Cached> entries;
+
+    private CommandCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Key, Cached>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Cached> eldest) {
+                return size() > CommandCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Replays the cached responses for an invocation, if there are any
+     * <p/>
+     * On a miss the {@link CommandEvent} starts recording its responses for {@link #store(BaseCommand, CommandEvent)}.
+     *
+     * @param cmd   the {@link BaseCommand} invoked
+     * @param event the {@link CommandEvent}
+     * @return {@code true} if replayed; {@code false} if the command needs to run
+     */
+    public final boolean replay(BaseCommand cmd, CommandEvent event) {
+        Key key = new Key(cmd, event);
+        Cached cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+            if (cached != null && now() - cached.expires >= 0) {
+                entries.remove(key);
+                cached = null;
+            }
+        }
+        if (cached == null) {
+            event.recordResponses();
+            return false;
+        }
+        for (Response response : cached.responses) {
+            response.replay(event);
+        }
+        return true;
+    }
+
+    /**
+     * Stores the responses recorded while an invocation missed in {@link #replay(BaseCommand, CommandEvent)}
+     *
+     * @param cmd   the {@link BaseCommand} invoked
+     * @param event the {@link CommandEvent}
+     */
+    public final void store(BaseCommand cmd, CommandEvent event) {
+        List<Response> responses = event.takeResponses();
+        if (responses == null) {
+            return;
+        }
+        Cached cached = new Cached(responses.toArray(new Response[responses.size()]), now() + cmd.getDescriptor().getCacheTtl());
+        synchronized (entries) {
+            entries.put(new Key(cmd, event), cached);
+        }
+    }
+
+    /**
+     * Drops every cached response
+     */
+    public final void invalidate() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private static long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    private static final class Key {
+        private final BaseCommand cmd;
+        private final String channel, arguments;
+        private final int tier;
+
+        private Key(BaseCommand cmd, CommandEvent event) {
+            CacheKey[] parts = cmd.getDescriptor().cacheKey();
+            String channel = null, arguments = null;
+            int tier = -1;
+            for (CacheKey part : parts) {
+                switch (part) {
+                    case CHANNEL:
+                        channel = event.getChannel() != null ? event.getChannel().getName() : "";
+                        break;
+                    case TIER:
+                        tier = event.getPermissions().getMask();
+                        break;
+                    case ARGUMENTS:
+                        arguments = event.hasArguments() ? event.getArgumentsAsString() : "";
+                        break;
+                }
+            }
+            this.cmd = cmd;
+            this.channel = channel;
+            this.arguments = arguments;
+            this.tier = tier;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return cmd == other.cmd && tier == other.tier
+                    && (channel == null ? other.channel == null : channel.equals(other.channel))
+                    && (arguments == null ? other.arguments == null : arguments.equals(other.arguments));
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = System.identityHashCode(cmd);
+            hash = 31 * hash + tier;
+            hash = 31 * hash + (channel == null ? 0 : channel.hashCode());
+            return 31 * hash + (arguments == null ? 0 : arguments.hashCode());
+        }
+    }
+
+    private static final class Cached {
+        private final Response[] responses;
+        private final long expires;
+
+        private Cached(Response[] responses, long expires) {
+            this.responses = responses;
+            this.expires = expires;
+        }
+    }
+
+    /**
+     * A single message or notice sent by a {@link BaseCommand}
+     */
+    static final class Response {
+        static final int USER_MESSAGE = 0, CHANNEL_MESSAGE = 1, USER_NOTICE = 2, CHANNEL_NOTICE = 3;
+        private final int kind;
+        private final String message;
+
+        Response(int kind, String message) {
+            this.kind = kind;
+            this.message = message;
+        }
+
+        private void replay(CommandEvent event) {
+            switch (kind) {
+                case USER_MESSAGE:
+                    event.respondToUser(message);
+                    break;
+                case CHANNEL_MESSAGE:
+                    event.respondToChannel(message);
+                    break;
+                case USER_NOTICE:
+                    event.respondNoticeToUser(message);
+                    break;
+                case CHANNEL_NOTICE:
+                    event.repsondNoticeToChannel(message);
+                    break;
+            }
+        }
+    }
+
+    /* Initialization on Demand Holder idiom, deferred until the configuration has been read */
+    private static class CommandCacheHolder {
+        public static final CommandCache INSTANCE = new CommandCache(ConfigurationManager.getCommandCacheSize());
+    }
+
+    public static CommandCache getInstance() {
+        return CommandCacheHolder.INSTANCE;
+    }
+    /* END */
+}
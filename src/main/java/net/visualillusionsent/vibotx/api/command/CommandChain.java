@@ -0,0 +1,40 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx.api.command;
+
+/**
+ * Command Chain
+ * <p/>
+ * The rest of the {@link CommandInterceptor}s around a {@link BaseCommand}, ending with the command itself.
+ * Chains are built ahead of time for each command and never change once built.
+ *
+ * @author Jason (darkdiplomat)
+ */
+public abstract class CommandChain {
+
+    protected CommandChain() {
+    }
+
+    /**
+     * Runs the next {@link CommandInterceptor}, or the {@link BaseCommand} once there are none left
+     *
+     * @param event the {@link CommandEvent}
+     * @return the result of the rest of the chain
+     */
+    public abstract boolean proceed(CommandEvent event);
+}
@@ -0,0 +1,177 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx.api.command;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Command Descriptor
+ * <p/>
+ * A {@link BotCommand} annotation read once when its {@link BaseCommand} is created, so the command's
+ * settings are plain fields and its permission requirements a bit mask rather than calls on the
+ * annotation proxy.
+ *
+ * @author Jason (darkdiplomat)
+ */
+public final class CommandDescriptor {
+    /**
+     * Permission bit for {@code Voice} in a channel
+     */
+    public static final int VOICE = 1;
+    /**
+     * Permission bit for {@code Op} in a channel
+     */
+    public static final int OP = 2;
+    /**
+     * Permission bit for Bot Operators
+     */
+    public static final int BOT_OP = 4;
+
+    private final String name, usage, description, helpLine;
+    private final char prefix;
+    private final List<String> aliases;
+    private final int minParam, maxParam;
+    private final int declared, required;
+    private final boolean privateAllowed;
+    private final CommandConcurrency concurrency;
+    private final long timeout, cacheTtl;
+    private final int cost;
+    private final CacheKey[] cacheKey;
+
+    CommandDescriptor(BotCommand cmd) {
+        this.name = cmd.main();
+        this.prefix = cmd.prefix();
+        String[] aliases = cmd.aliases();
+        this.aliases = aliases.length == 0 || aliases[0].equals(BotCommand.NULL) ? Collections.<String>emptyList() : Collections.unmodifiableList(Arrays.asList(aliases));
+        this.usage = cmd.usage();
+        this.description = cmd.desc();
+        this.helpLine = usage.concat(" - ").concat(description);
+        this.minParam = cmd.minParam();
+        this.maxParam = cmd.maxParam();
+        this.declared = (cmd.voice() ? VOICE : 0) | (cmd.op() ? OP : 0) | (cmd.botOp() ? BOT_OP : 0);
+        // Voice commands have always needed op and bot operator as well, and op commands bot operator
+        this.required = (cmd.voice() ? VOICE | OP | BOT_OP : 0) | (cmd.op() ? OP | BOT_OP : 0) | (cmd.botOp() ? BOT_OP : 0);
+        this.privateAllowed = cmd.privateAllowed();
+        this.concurrency = cmd.concurrency();
+        this.timeout = cmd.timeoutMs();
+        this.cost = cmd.cost();
+        this.cacheTtl = cmd.cacheTtl();
+        this.cacheKey = cmd.cacheKey();
+    }
+
+    public final String getName() {
+        return name;
+    }
+
+    public final char getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Gets the aliases
+     *
+     * @return an unmodifiable list of the aliases; empty if there are none
+     */
+    public final List<String> getAliases() {
+        return aliases;
+    }
+
+    public final String getUsage() {
+        return usage;
+    }
+
+    public final String getDescription() {
+        return description;
+    }
+
+    /**
+     * Gets the line the command is listed as in the help list
+     *
+     * @return the usage and description
+     */
+    public final String getHelpLine() {
+        return helpLine;
+    }
+
+    public final int getMinParam() {
+        return minParam;
+    }
+
+    public final int getMaxParam() {
+        return maxParam;
+    }
+
+    /**
+     * Gets the {@link #VOICE}, {@link #OP} and {@link #BOT_OP} bits as declared on the {@link BotCommand}
+     *
+     * @return the declared permission bits
+     */
+    public final int getDeclaredPermissions() {
+        return declared;
+    }
+
+    /**
+     * Gets the permission bits a {@link net.visualillusionsent.vibotx.api.command.PermissionContext} must all have to run the command
+     *
+     * @return the required permission bits
+     */
+    public final int getRequiredPermissions() {
+        return required;
+    }
+
+    /**
+     * Checks whether permission bits are enough to run the command
+     *
+     * @param permissions the bits a user has
+     * @return {@code true} if every required bit is present
+     */
+    public final boolean permits(int permissions) {
+        return (required & ~permissions) == 0;
+    }
+
+    public final boolean isPrivateAllowed() {
+        return privateAllowed;
+    }
+
+    public final CommandConcurrency getConcurrency() {
+        return concurrency;
+    }
+
+    public final long getTimeout() {
+        return timeout;
+    }
+
+    public final int getCost() {
+        return cost;
+    }
+
+    public final long getCacheTtl() {
+        return cacheTtl;
+    }
+
+    public final CacheKey[] getCacheKey() {
+        return cacheKey.clone();
+    }
+
+    /* Unshared view for the CommandCache */
+    final CacheKey[] cacheKey() {
+        return cacheKey;
+    }
+}
@@ -17,46 +17,63 @@
  */
 package net.visualillusionsent.vibotx.api.command;
 
-import net.visualillusionsent.utils.StringUtils;
+import net.visualillusionsent.vibotx.PermissionCache;
 import net.visualillusionsent.vibotx.VIBotX;
 import org.pircbotx.Channel;
 import org.pircbotx.User;
 import org.pircbotx.hooks.events.MessageEvent;
 import org.pircbotx.hooks.events.PrivateMessageEvent;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
+ * A message that may be a command
+ * <p/>
+ * The command name and arguments are located in the original message when the event is created, but
+ * no substrings are made until they are asked for. Arguments follow {@code message.split(" ")}: every
+ * single space separates two arguments and trailing spaces are ignored.
+ *
  * @author Jason (darkdiplomat)
  */
 public final class CommandEvent {
+    private static final String[] NO_ARGS = new String[0];
     private final User user;
     private final Channel channel;
     private final VIBotX bot;
-    private final String[] args;
-    private final String command;
+    private final String message;
     private final char prefix;
+    /* End of the command name; start of the arguments is one past it */
+    private final int commandEnd;
+    /* End of the arguments once trailing spaces are dropped; not past commandEnd when there are none */
+    private final int argsEnd;
+    private String command;
+    private volatile String[] args;
+    private volatile PermissionContext permissions;
+    /* Responses sent while recording for the CommandCache; null when not recording */
+    private ArrayList<CommandCache.Response> responses;
 
     public CommandEvent(MessageEvent<VIBotX> event) {
-        this.channel = event.getChannel();
-        this.user = event.getUser();
-        this.bot = event.getBot();
-
-        String[] tempArgs = event.getMessage().split(" ");
-        prefix = tempArgs[0].charAt(0);
-        command = tempArgs[0].substring(1);
-        args = new String[tempArgs.length - 1];
-        System.arraycopy(tempArgs, 1, args, 0, tempArgs.length - 1);
+        this(event.getChannel(), event.getUser(), event.getBot(), event.getMessage());
     }
 
     public CommandEvent(PrivateMessageEvent<VIBotX> event) {
-        this.channel = null;
-        this.user = event.getUser();
-        this.bot = event.getBot();
+        this(null, event.getUser(), event.getBot(), event.getMessage());
+    }
 
-        String[] tempArgs = event.getMessage().split(" ");
-        prefix = tempArgs[0].charAt(0);
-        command = tempArgs[0].substring(1);
-        args = new String[tempArgs.length - 1];
-        System.arraycopy(tempArgs, 1, args, 0, tempArgs.length - 1);
+    private CommandEvent(Channel channel, User user, VIBotX bot, String message) {
+        this.channel = channel;
+        this.user = user;
+        this.bot = bot;
+        this.message = message;
+        this.prefix = message.isEmpty() ? '\0' : message.charAt(0);
+        int space = message.indexOf(' ');
+        this.commandEnd = space < 0 ? message.length() : space;
+        int end = message.length();
+        while (end > commandEnd && message.charAt(end - 1) == ' ') {
+            end--;
+        }
+        this.argsEnd = end;
     }
 
     public char getPrefix() {
@@ -64,29 +81,115 @@ public final class CommandEvent {
     }
 
     public String getCommand() {
+        if (command == null) {
+            command = commandEnd > 0 ? message.substring(1, commandEnd) : "";
+        }
         return command;
     }
 
+    /**
+     * Gets the arguments, splitting them out of the message the first time this is called
+     *
+     * @return the arguments
+     */
     public String[] getArguments() {
-        return args;
+        String[] split = args;
+        if (split == null) {
+            int count = getArgumentCount();
+            if (count == 0) {
+                split = NO_ARGS;
+            } else {
+                split = new String[count];
+                int start = commandEnd + 1;
+                for (int index = 0; index < count; index++) {
+                    int space = message.indexOf(' ', start);
+                    int end = space < 0 || space > argsEnd ? argsEnd : space;
+                    split[index] = message.substring(start, end);
+                    start = end + 1;
+                }
+            }
+            args = split;
+        }
+        return split;
+    }
+
+    /**
+     * Gets the number of arguments without splitting them out of the message
+     *
+     * @return the argument count
+     */
+    public int getArgumentCount() {
+        if (argsEnd <= commandEnd) {
+            return 0;
+        }
+        String[] split = args;
+        if (split != null) {
+            return split.length;
+        }
+        int count = 1;
+        for (int index = commandEnd + 1; index < argsEnd; index++) {
+            if (message.charAt(index) == ' ') {
+                count++;
+            }
+        }
+        return count;
     }
 
     public String getArgument(int index) {
-        if (hasArguments() && index >= 0 && index < args.length) {
-            return args[index];
+        if (index < 0) {
+            return null;
+        }
+        String[] split = args;
+        if (split != null) {
+            return index < split.length ? split[index] : null;
+        }
+        if (argsEnd <= commandEnd) {
+            return null;
         }
-        return null;
+        int start = commandEnd + 1;
+        for (int skip = 0; skip < index; skip++) {
+            int space = message.indexOf(' ', start);
+            if (space < 0 || space >= argsEnd) {
+                return null;
+            }
+            start = space + 1;
+        }
+        int space = message.indexOf(' ', start);
+        return message.substring(start, space < 0 || space > argsEnd ? argsEnd : space);
     }
 
     public boolean hasArguments() {
-        return args.length > 0;
+        return argsEnd > commandEnd;
     }
 
     public String getArgumentsAsString() {
         if (!hasArguments()) {
             return "{none}";
         }
-        return StringUtils.joinString(args, " ", 0);
+        return message.substring(commandEnd + 1, argsEnd);
+    }
+
+    /**
+     * Gets the whole message the command was parsed from
+     *
+     * @return the message
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Gets what the {@link User} may do where the command was sent, worked out on first use
+     *
+     * @return the {@link PermissionContext}
+     */
+    public PermissionContext getPermissions() {
+        PermissionContext context = permissions;
+        if (context == null) {
+            context = PermissionCache.get(user, channel);
+            permissions = context;
+        }
+        return context;
     }
 
     public User getUser() {
@@ -102,6 +205,7 @@ public final class CommandEvent {
     }
 
     public void respondToUser(String msg) {
+        record(CommandCache.Response.USER_MESSAGE, msg);
         getUser().send().message(msg);
     }
 
@@ -109,10 +213,12 @@ public final class CommandEvent {
         if (channel == null) {
             return;
         }
+        record(CommandCache.Response.CHANNEL_MESSAGE, msg);
         getChannel().send().message(msg);
     }
 
     public void respondNoticeToUser(String msg) {
+        record(CommandCache.Response.USER_NOTICE, msg);
         getUser().send().notice(msg);
     }
 
@@ -120,7 +226,24 @@ public final class CommandEvent {
         if (channel == null) {
             return;
         }
+        record(CommandCache.Response.CHANNEL_NOTICE, msg);
         getChannel().send().notice(msg);
     }
 
+    final void recordResponses() {
+        responses = new ArrayList<>();
+    }
+
+    final List<CommandCache.Response> takeResponses() {
+        List<CommandCache.Response> recorded = responses;
+        responses = null;
+        return recorded;
+    }
+
+    private void record(int kind, String msg) {
+        if (responses != null) {
+            responses.add(new CommandCache.Response(kind, msg));
+        }
+    }
+
 }
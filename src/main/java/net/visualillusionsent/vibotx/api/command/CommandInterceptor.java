@@ -0,0 +1,54 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx.api.command;
+
+/**
+ * Command Interceptor
+ * <p/>
+ * Wraps behaviour around the execution of {@link BaseCommand}s, such as auditing, cooldowns or argument checks.
+ * Registered through {@link net.visualillusionsent.vibotx.CommandParser#addInterceptor(net.visualillusionsent.vibotx.api.plugin.Plugin, CommandInterceptor, int)},
+ * interceptors run in order, each deciding whether to carry on down the {@link CommandChain}. Interceptors are removed
+ * when their {@link net.visualillusionsent.vibotx.api.plugin.Plugin} is disabled.
+ * <p/>
+ * The chain only wraps the execution itself. The mute, private message, permission, argument count and throttle checks
+ * all happen before it, so an interceptor never sees a command those checks refused and cannot let one through or
+ * audit the refusal. When plugin mailboxes or command workers are enabled the chain also runs on that thread rather
+ * than the one that received the message.
+ *
+ * @author Jason (darkdiplomat)
+ */
+public interface CommandInterceptor {
+
+    /**
+     * Checks whether the interceptor wants to wrap a command; asked once whenever the chains are rebuilt
+     *
+     * @param descriptor the {@link CommandDescriptor} of the command
+     * @return {@code true} to be part of the command's chain
+     */
+    boolean appliesTo(CommandDescriptor descriptor);
+
+    /**
+     * Intercepts a command
+     *
+     * @param cmd   the {@link BaseCommand} being run
+     * @param event the {@link CommandEvent}
+     * @param chain the rest of the chain; call {@link CommandChain#proceed(CommandEvent)} to run it
+     * @return the result to report; normally what {@code chain.proceed(event)} returned, or {@code false} to stop the command
+     */
+    boolean intercept(BaseCommand cmd, CommandEvent event, CommandChain chain);
+}
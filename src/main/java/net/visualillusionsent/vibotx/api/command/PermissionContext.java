@@ -0,0 +1,114 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx.api.command;
+
+import net.visualillusionsent.vibotx.MuteTracker;
+import net.visualillusionsent.vibotx.configuration.BotOpsManager;
+import org.pircbotx.Channel;
+import org.pircbotx.User;
+
+/**
+ * Permission Context
+ * <p/>
+ * What a {@link User} may do where a command was sent, worked out once per invocation.
+ * Obtained through {@link CommandEvent#getPermissions()}.
+ *
+ * @author Jason (darkdiplomat)
+ */
+public final class PermissionContext {
+    private final boolean botOp, op, voice, muted, botMuted;
+    private final int mask;
+
+    private PermissionContext(boolean botOp, boolean op, boolean voice, boolean muted, boolean botMuted) {
+        this.botOp = botOp;
+        this.op = op;
+        this.voice = voice;
+        this.muted = muted;
+        this.botMuted = botMuted;
+        this.mask = (voice ? CommandDescriptor.VOICE : 0) | (op ? CommandDescriptor.OP : 0) | (botOp ? CommandDescriptor.BOT_OP : 0);
+    }
+
+    /**
+     * Works out the permissions of a {@link User} without any caching
+     *
+     * @param user    the {@link User}
+     * @param channel the {@link Channel}; {@code null} for private messages
+     * @return the {@code PermissionContext}
+     */
+    public static PermissionContext resolve(User user, Channel channel) {
+        boolean botOp = BotOpsManager.isBotOp(user);
+        if (channel == null) {
+            return new PermissionContext(botOp, false, false, false, false);
+        }
+        return new PermissionContext(botOp, channel.isOp(user), channel.hasVoice(user), MuteTracker.userMuteIn(user, channel), MuteTracker.botMuteIn(channel));
+    }
+
+    /**
+     * Gets whether the {@link User} is a Bot Operator
+     *
+     * @return {@code true} if a Bot Operator
+     */
+    public final boolean isBotOp() {
+        return botOp;
+    }
+
+    /**
+     * Gets whether the {@link User} is an op in the channel
+     *
+     * @return {@code true} if op; always {@code false} for private messages
+     */
+    public final boolean isOp() {
+        return op;
+    }
+
+    /**
+     * Gets whether the {@link User} has voice in the channel
+     *
+     * @return {@code true} if voiced; always {@code false} for private messages
+     */
+    public final boolean hasVoice() {
+        return voice;
+    }
+
+    /**
+     * Gets the {@link CommandDescriptor#VOICE}, {@link CommandDescriptor#OP} and {@link CommandDescriptor#BOT_OP} bits the {@link User} has
+     *
+     * @return the permission bits
+     */
+    public final int getMask() {
+        return mask;
+    }
+
+    /**
+     * Gets whether the bot is ignoring the {@link User} in the channel
+     *
+     * @return {@code true} if ignored
+     */
+    public final boolean isMuted() {
+        return muted;
+    }
+
+    /**
+     * Gets whether the bot has been muted in the channel
+     *
+     * @return {@code true} if the bot is muted
+     */
+    public final boolean isBotMuted() {
+        return botMuted;
+    }
+}
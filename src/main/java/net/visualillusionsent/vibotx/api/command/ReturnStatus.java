@@ -24,5 +24,13 @@ public enum ReturnStatus {
     NOTCOMMAND,
     FAILURE,
     SUCCESS,
-    ERROR,;
+    ERROR,
+    /**
+     * The command passed its checks and was handed off to run on another thread
+     */
+    QUEUED,
+    /**
+     * The command was refused by the rate limits and not run
+     */
+    THROTTLED,;
 }
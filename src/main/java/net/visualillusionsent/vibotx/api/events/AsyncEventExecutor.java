@@ -0,0 +1,114 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx.api.events;
+
+import net.visualillusionsent.vibotx.VIBotX;
+import net.visualillusionsent.vibotx.configuration.ConfigurationManager;
+import org.pircbotx.hooks.Event;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static net.visualillusionsent.vibotx.VIBotX.log;
+
+/**
+ * Asynchronous Event Executor
+ * <p/>
+ * Runs {@link EventMethod#async()} listeners on a bounded pool of daemon threads so a blocking
+ * listener cannot hold up the thread PircBotX delivers Events on
+ *
+ * @author Jason (darkdiplomat)
+ */
+final class AsyncEventExecutor {
+    private final ThreadPoolExecutor pool;
+    private final AtomicLong rejected = new AtomicLong();
+
+    AsyncEventExecutor(int threads, int queueSize) {
+        pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(queueSize), new AsyncThreadFactory(), new CountingRejectionHandler());
+        pool.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queues a listener to be passed the Event
+     *
+     * @param listener the {@link RegisteredEventListener} to execute
+     * @param event    the Event to pass
+     * @param typeId   the id of the Event type
+     */
+    final void dispatch(final RegisteredEventListener listener, final Event<VIBotX> event, final int typeId) {
+        pool.execute(new Runnable() {
+            @Override
+            public void run() {
+                EventHandler.getInstance().execute(listener, event, typeId);
+            }
+        });
+    }
+
+    final int getQueueDepth() {
+        return pool.getQueue().size();
+    }
+
+    final int getActiveCount() {
+        return pool.getActiveCount();
+    }
+
+    final long getCompletedCount() {
+        return pool.getCompletedTaskCount();
+    }
+
+    final long getRejectedCount() {
+        return rejected.get();
+    }
+
+    private final class CountingRejectionHandler implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            long count = rejected.incrementAndGet();
+            if (count == 1 || count % 1000 == 0) { // Don't let an overloaded pool flood the log as well
+                log.warning("Asynchronous event queue is full, dropped " + count + " event(s) so far");
+            }
+        }
+    }
+
+    private static final class AsyncThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadNum = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "VIBotX-AsyncEvent-" + threadNum.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /* Initialization on Demand Holder idiom, deferred until the configuration has been read */
+    private static class AsyncEventExecutorHolder {
+        public static final AsyncEventExecutor INSTANCE = new AsyncEventExecutor(ConfigurationManager.getAsyncEventThreads(), ConfigurationManager.getAsyncEventQueue());
+    }
+
+    static AsyncEventExecutor getInstance() {
+        return AsyncEventExecutorHolder.INSTANCE;
+    }
+    /* END */
+}
@@ -0,0 +1,121 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx.api.events;
+
+import net.visualillusionsent.vibotx.VIBotX;
+import org.pircbotx.Channel;
+import org.pircbotx.hooks.Event;
+import org.pircbotx.hooks.types.GenericChannelEvent;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Event Batch
+ * <p/>
+ * A run of membership or mode Events of a single type, gathered over a short window while event
+ * batching is enabled. Listener methods taking an {@code EventBatch} receive these instead of paying
+ * for thousands of separate calls during a large join or a netsplit; {@link EventMethod#batch()}
+ * narrows which Event types a method wants.
+ * <p/>
+ * Batches for channel Events hold Events from one channel only and are routed like any other channel
+ * Event. Batches of {@link org.pircbotx.hooks.events.QuitEvent}s have no channel.
+ *
+ * @author Jason (darkdiplomat)
+ */
+public final class EventBatch extends Event<VIBotX> implements GenericChannelEvent<VIBotX> {
+    private final Class<?> eventType;
+    private final Channel channel;
+    private final List<Event<VIBotX>> events;
+
+    public EventBatch(VIBotX bot, Class<?> eventType, Channel channel, List<Event<VIBotX>> events) {
+        super(bot);
+        this.eventType = eventType;
+        this.channel = channel;
+        this.events = Collections.unmodifiableList(events);
+    }
+
+    /**
+     * Gets the type of the Events in this batch
+     *
+     * @return the Event class; a plain {@code Class<?>} so it compares against the raw class literals of the PircBotX Events
+     */
+    public final Class<?> getEventType() {
+        return eventType;
+    }
+
+    /**
+     * Gets the channel the Events happened in
+     *
+     * @return the channel; {@code null} for Events without one
+     */
+    @Override
+    public final Channel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Gets the Events in the order they were received
+     *
+     * @return the unmodifiable list of Events
+     */
+    public final List<Event<VIBotX>> getEvents() {
+        return events;
+    }
+
+    /**
+     * Gets the Events cast to the batch's Event type
+     *
+     * @param type
+     *         the Event class, which must be the batch's {@link #getEventType()}
+     *
+     * @return the Events
+     *
+     * @throws IllegalArgumentException
+     *         if the type does not match the batch
+     */
+    @SuppressWarnings("unchecked")
+    public final <E extends Event<?>> List<E> getEvents(Class<E> type) {
+        if (type != eventType) {
+            throw new IllegalArgumentException("Batch holds " + eventType.getSimpleName() + " not " + type.getSimpleName());
+        }
+        return (List<E>) (List<?>) events;
+    }
+
+    /**
+     * Gets the number of Events in this batch
+     *
+     * @return the batch size
+     */
+    public final int size() {
+        return events.size();
+    }
+
+    /**
+     * Responds to the channel of the batch; does nothing for batches without a channel
+     *
+     * @param response
+     *         the message to send
+     */
+    @Override
+    public void respond(String response) {
+        if (channel != null) {
+            channel.send().message(response);
+        }
+    }
+}
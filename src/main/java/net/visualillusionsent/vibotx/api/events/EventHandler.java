@@ -24,20 +24,38 @@
  */
 package net.visualillusionsent.vibotx.api.events;
 
-import net.visualillusionsent.utils.ArrayUtils;
+import net.visualillusionsent.vibotx.VIBotX;
+import net.visualillusionsent.vibotx.logging.LatencyHistogram;
+import net.visualillusionsent.vibotx.api.plugin.JavaPlugin;
 import net.visualillusionsent.vibotx.api.plugin.Plugin;
+import net.visualillusionsent.vibotx.api.plugin.PluginMailbox;
+import net.visualillusionsent.vibotx.configuration.ConfigurationManager;
 import org.pircbotx.hooks.Event;
+import org.pircbotx.hooks.types.GenericEvent;
 
-import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static net.visualillusionsent.vibotx.VIBotX.log;
 
 /**
  * Event Handler class
  * <p/>
+ * Listeners may be registered against any {@link GenericEvent} type, including the super classes and
+ * interfaces of the concrete events PircBotX fires. Each concrete event class is resolved once into a
+ * flattened listener array ordered by registration, which is cached until the registrations change.
+ * Listeners subscribed to specific channels through {@link EventMethod#channels()} are indexed by
+ * channel so other channels' Events never reach them. Listeners quarantined by their
+ * {@link ListenerCircuitBreaker} are left out of the routes until they recover.
+ * <p/>
  * Some source code derived and adapted from CanaryLib
  *
  * @author Jason (darkdiplomat)
@@ -47,7 +65,96 @@ import static net.visualillusionsent.vibotx.VIBotX.log;
  */
 public final class EventHandler {
 
-    private final ConcurrentHashMap<Class<? extends Event>, ArrayList<RegisteredEventListener>> regListeners = new ConcurrentHashMap<>();
+    private static final RegisteredEventListener[] NO_LISTENERS = new RegisteredEventListener[0];
+
+    /**
+     * Immutable listener snapshots keyed by the Event type the listener declared, replaced whole on registration changes
+     */
+    private final ConcurrentHashMap<Class<?>, RegisteredEventListener[]> regListeners = new ConcurrentHashMap<>();
+
+    /**
+     * Guards snapshot replacement so concurrent registrations do not lose each other's updates
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Reverse index of the Event types each Plugin has listeners for, so unregistering only touches what it owns; guarded by the lock
+     */
+    private final HashMap<Plugin, LinkedHashSet<Class<?>>> ownedTypes = new HashMap<>();
+
+    /**
+     * Source of the registration order used to sort flattened routes
+     */
+    private long registrations;
+
+    /**
+     * Source of the small integer ids handed out to concrete Event classes
+     */
+    private final AtomicInteger nextTypeId = new AtomicInteger();
+
+    /**
+     * Concrete Event class to its routing table index
+     */
+    private final ClassValue<Integer> typeIds = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            synchronized (lock) {
+                int typeId = nextTypeId.getAndIncrement();
+                typeClasses.put(typeId, type);
+                interest = rebuildInterest();
+                return typeId;
+            }
+        }
+    };
+
+    /**
+     * Event type id back to its class
+     */
+    private final ConcurrentHashMap<Integer, Class<?>> typeClasses = new ConcurrentHashMap<>();
+
+    /**
+     * One bit per Event type id, set if any listener would be passed that Event; rebuilt on registration changes
+     */
+    private volatile long[] interest = new long[1];
+
+    /**
+     * Concrete Event class to every type it can be listened for as; the hierarchy never changes so this is never invalidated
+     * <p/>
+     * An {@link EventBatch} only goes to listeners of EventBatch itself, catch-all listeners already saw the Events inside it.
+     */
+    private static final ClassValue<Class<?>[]> listenableTypes = new ClassValue<Class<?>[]>() {
+        @Override
+        protected Class<?>[] computeValue(Class<?> type) {
+            if (type == EventBatch.class) {
+                return new Class<?>[]{ EventBatch.class };
+            }
+            LinkedHashSet<Class<?>> types = new LinkedHashSet<>();
+            for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+                types.add(current);
+                addInterfaces(current, types);
+            }
+            ArrayList<Class<?>> listenable = new ArrayList<>();
+            for (Class<?> candidate : types) {
+                if (GenericEvent.class.isAssignableFrom(candidate)) {
+                    listenable.add(candidate);
+                }
+            }
+            return listenable.toArray(new Class<?>[listenable.size()]);
+        }
+
+        private void addInterfaces(Class<?> type, LinkedHashSet<Class<?>> types) {
+            for (Class<?> iface : type.getInterfaces()) {
+                if (types.add(iface)) {
+                    addInterfaces(iface, types);
+                }
+            }
+        }
+    };
+
+    /**
+     * Resolved routes indexed by Event type id; a {@code null} entry has not been resolved since the last registration change
+     */
+    private volatile EventRoute[] routes = new EventRoute[32];
 
     /* Initialization on Demand Holder idiom */
     // Private constructor prevents instantiation from other classes
@@ -65,74 +172,356 @@ public final class EventHandler {
 
     /**
      * Register a {@link EventListener} for a system hook
+     * <p/>
+     * The listener class is scanned and validated once; later registrations of the same class reuse the
+     * cached {@link ListenerMetadata}.
      */
     public void registerListener(EventListener listener, Plugin plugin) throws EventMethodSignatureException {
-        Method[] methods = ArrayUtils.safeArrayMerge(listener.getClass().getMethods(), listener.getClass().getDeclaredMethods(), new Method[1]);
-        for (final Method method : methods) {
-            // Check if the method is a hook handling method
-            final EventMethod eMethod = method.getAnnotation(EventMethod.class);
+        ListenerMetadata.Entry[] entries = ListenerMetadata.of(listener.getClass());
+        if (entries.length == 0) {
+            return;
+        }
+        PluginMailbox mailbox = null;
+        if (ConfigurationManager.usePluginMailboxes() && plugin instanceof JavaPlugin) {
+            mailbox = ((JavaPlugin) plugin).getMailbox();
+        }
 
-            if (eMethod == null) {
-                continue; // Next, not one of our things
+        synchronized (lock) {
+            LinkedHashSet<Class<?>> types = ownedTypes.get(plugin);
+            if (types == null) {
+                types = new LinkedHashSet<>();
+                ownedTypes.put(plugin, types);
             }
-            // Check the parameters for number and type and decide if it's one
-            // that is really a handler method
-            Class<?>[] parameters = method.getParameterTypes();
-            if (parameters.length > 1 || parameters.length == 0) {
-                throw new EventMethodSignatureException("Invalid number of parameters for Method: " + method.getName() + " in EventListener: " + listener.getClass().getName());
+            for (ListenerMetadata.Entry entry : entries) {
+                RegisteredEventListener[] current = regListeners.get(entry.eventClass);
+                if (current == null) {
+                    current = NO_LISTENERS;
+                }
+                RegisteredEventListener[] updated = Arrays.copyOf(current, current.length + 1);
+                updated[current.length] = new RegisteredEventListener(plugin, listener, entry.name, entry.dispatch, registrations++, entry.async, mailbox, entry.subscription);
+                regListeners.put(entry.eventClass, updated);
+                types.add(entry.eventClass);
             }
-            Class<?> eventClass = parameters[0];
-            if (!Event.class.isAssignableFrom(eventClass)) {
-                throw new EventMethodSignatureException("Event.class is not assignable from " + eventClass.getName());
+            invalidateRoutes();
+        }
+    }
+
+    /**
+     * Unregisters every listener of a {@link Plugin}
+     * <p/>
+     * Only the Event types the plugin registered for are visited; each is swapped for a new snapshot so
+     * Events being dispatched are never blocked.
+     */
+    public void unregisterPluginListeners(Plugin plugin) {
+        synchronized (lock) {
+            LinkedHashSet<Class<?>> types = ownedTypes.remove(plugin);
+            if (types == null) {
+                return; // Nothing registered
             }
-            if (!regListeners.containsKey(eventClass.asSubclass(Event.class))) {
-                regListeners.put(eventClass.asSubclass(Event.class), new ArrayList<RegisteredEventListener>());
+            for (Class<?> type : types) {
+                RegisteredEventListener[] current = regListeners.get(type);
+                if (current == null) {
+                    continue;
+                }
+                RegisteredEventListener[] updated = new RegisteredEventListener[current.length];
+                int kept = 0;
+                for (RegisteredEventListener listener : current) {
+                    if (!listener.getPlugin().equals(plugin)) {
+                        updated[kept++] = listener;
+                    }
+                }
+                if (kept == current.length) {
+                    continue; // Nothing owned by the plugin here
+                }
+                if (kept == 0) {
+                    regListeners.remove(type);
+                } else {
+                    regListeners.put(type, Arrays.copyOf(updated, kept));
+                }
             }
+            invalidateRoutes();
+        }
+    }
 
-            EventDispatch dispatcher = new EventDispatch() {
-                private static final String err = "Failed to handle Event: '%s' for Listener: '%s'";
+    /**
+     * Passes an event to the Plugin Event Listeners
+     * <p/>
+     * Iterates the snapshot that was current when the event arrived; registration changes made during
+     * dispatch take effect for the next event. Listeners of plugins using mailboxes are queued to their
+     * {@link PluginMailbox}, {@link EventMethod#async()} listeners to the asynchronous executor, and the
+     * rest are called on the current thread.
+     */
+    public final void passEvent(final Event<VIBotX> event) {
+        passEvent(event, typeIds.get(event.getClass()));
+    }
 
-                @Override
-                public void execute(EventListener listener, Event event) throws EventHandlingException {
-                    try {
-                        method.invoke(listener, event);
-                    } catch (Exception ex) {
-                        throw new EventHandlingException(String.format(err, event.getClass().getSimpleName(), listener.getClass().getName()), ex.getCause());
+    /**
+     * Passes an event whose type id the caller already holds to the Plugin Event Listeners
+     *
+     * @param event
+     *         the Event to pass
+     * @param typeId
+     *         the id of the Event's class from {@link #getTypeId(Class)}
+     */
+    public final void passEvent(final Event<VIBotX> event, final int typeId) {
+        if (!hasListeners(typeId)) {
+            return;
+        }
+        RegisteredEventListener[] listeners = route(event.getClass(), typeId).listenersFor(event);
+        for (final RegisteredEventListener regEL : listeners) {
+            if (!regEL.accepts(event)) {
+                continue;
+            }
+            if (regEL.getMailbox() != null) {
+                regEL.getMailbox().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        execute(regEL, event, typeId);
                     }
-                }
-            };
+                });
+            } else if (regEL.isAsync()) {
+                AsyncEventExecutor.getInstance().dispatch(regEL, event, typeId);
+            } else {
+                execute(regEL, event, typeId);
+            }
+        }
+    }
 
-            regListeners.get(eventClass.asSubclass(Event.class)).add(new RegisteredEventListener(plugin, listener, dispatcher));
+    /**
+     * Passes an event to a single listener, logging any failure
+     * <p/>
+     * Calls refused by the listener's circuit breaker are skipped, and failures past the first in the
+     * breaker's window are counted instead of logged.
+     */
+    final void execute(RegisteredEventListener regEL, Event<VIBotX> event, int typeId) {
+        ListenerCircuitBreaker breaker = regEL.getBreaker();
+        if (breaker != null && !breaker.allowCall()) {
+            return;
+        }
+        try {
+            regEL.execute(event, typeId);
+        } catch (EventHandlingException ehex) {
+            if (breaker != null && !breaker.logFailure()) {
+                return; // Counted, and summarized when the window closes or the breaker opens
+            }
+            log.error(String.format("Exception while passing Event: %s to EventListener: %s (Plugin: %s)", event.getClass().getSimpleName(), regEL.getName(), regEL.getPlugin().getName()), ehex.getCause());
         }
     }
 
-    public void unregisterPluginListeners(Plugin plugin) {
-        for (ArrayList<RegisteredEventListener> registeredEventListeners : regListeners.values()) {
-            Iterator<RegisteredEventListener> regIterator = registeredEventListeners.iterator();
+    /**
+     * Gets the simple name of the Event class assigned a type id
+     *
+     * @param typeId the Event type id
+     * @return the Event class name, or {@code "Unknown"} if the id was never handed out
+     */
+    public final String getEventTypeName(int typeId) {
+        Class<?> type = typeClasses.get(typeId);
+        return type != null ? type.getSimpleName() : "Unknown";
+    }
 
-            while (regIterator.hasNext()) {
-                RegisteredEventListener listener = regIterator.next();
+    /**
+     * Gets the id assigned to an Event class, for use with {@link #hasListeners(int)} and {@link #passEvent(Event, int)}
+     *
+     * @param eventClass
+     *         the concrete Event class
+     *
+     * @return the Event type id
+     */
+    public final int getTypeId(Class<?> eventClass) {
+        return typeIds.get(eventClass);
+    }
 
-                if (listener.getPlugin().equals(plugin)) {
-                    regIterator.remove();
+    /**
+     * Checks whether any listener would be passed Events of a type
+     * <p/>
+     * A single bit test, so callers can skip building anything for Events nobody listens to.
+     *
+     * @param typeId
+     *         the Event type id from {@link #getTypeId(Class)}
+     *
+     * @return {@code true} if there is at least one listener
+     */
+    public final boolean hasListeners(int typeId) {
+        long[] bits = interest;
+        int word = typeId >>> 6;
+        return word < bits.length && (bits[word] & (1L << typeId)) != 0;
+    }
+
+    /**
+     * Gets per-listener, per-Event type dispatch latency statistics
+     * <p/>
+     * Each row reads {@code plugin listener event calls mean p50 p99 max} with times in milliseconds,
+     * sorted by total time spent so the most expensive listeners come first.
+     *
+     * @param pluginName
+     *         the name of the Plugin to report on, or {@code null} for every Plugin
+     *
+     * @return the formatted statistic rows
+     */
+    public final List<String> getListenerStatistics(String pluginName) {
+        final ArrayList<Object[]> found = new ArrayList<>();
+        LinkedHashSet<RegisteredEventListener> seen = new LinkedHashSet<>();
+        for (RegisteredEventListener[] registered : regListeners.values()) {
+            Collections.addAll(seen, registered);
+        }
+        for (RegisteredEventListener regEL : seen) {
+            if (pluginName != null && !regEL.getPlugin().getName().equalsIgnoreCase(pluginName)) {
+                continue;
+            }
+            for (int typeId = 0; typeId < regEL.getHistogramCount(); typeId++) {
+                LatencyHistogram histogram = regEL.getHistogram(typeId);
+                if (histogram != null && histogram.getCount() > 0) {
+                    found.add(new Object[]{ regEL, typeId, histogram });
                 }
             }
         }
+        Collections.sort(found, new Comparator<Object[]>() {
+            @Override
+            public int compare(Object[] a, Object[] b) {
+                return Long.compare(((LatencyHistogram) b[2]).getTotalNanos(), ((LatencyHistogram) a[2]).getTotalNanos());
+            }
+        });
+        ArrayList<String> rows = new ArrayList<>(found.size());
+        for (Object[] entry : found) {
+            RegisteredEventListener regEL = (RegisteredEventListener) entry[0];
+            LatencyHistogram histogram = (LatencyHistogram) entry[2];
+            rows.add(String.format("%s %s %s calls=%d mean=%.3f p50=%.3f p99=%.3f max=%.3f",
+                    regEL.getPlugin().getName(), regEL.getName(), getEventTypeName((Integer) entry[1]), histogram.getCount(),
+                    histogram.getMeanNanos() / 1e6D, histogram.getPercentileNanos(50) / 1e6D,
+                    histogram.getPercentileNanos(99) / 1e6D, histogram.getMaxNanos() / 1e6D
+            ));
+        }
+        return rows;
     }
 
     /**
-     * Passes an event to the Plugin Event Listeners
+     * Gets the number of asynchronous listener invocations waiting for a thread
+     *
+     * @return the asynchronous queue depth
+     */
+    public final int getAsyncQueueDepth() {
+        return AsyncEventExecutor.getInstance().getQueueDepth();
+    }
+
+    /**
+     * Gets the number of asynchronous listener invocations currently running
+     *
+     * @return the active asynchronous invocations
+     */
+    public final int getAsyncActiveCount() {
+        return AsyncEventExecutor.getInstance().getActiveCount();
+    }
+
+    /**
+     * Gets the number of asynchronous listener invocations that have completed
+     *
+     * @return the completed asynchronous invocations
+     */
+    public final long getAsyncCompletedCount() {
+        return AsyncEventExecutor.getInstance().getCompletedCount();
+    }
+
+    /**
+     * Gets the number of asynchronous listener invocations dropped because the queue was full
+     *
+     * @return the rejected asynchronous invocations
      */
-    public final void passEvent(Event event) {
-        ArrayList<RegisteredEventListener> listeners = this.regListeners.get(event.getClass().asSubclass(Event.class));
-        if (listeners != null) {
-            for (RegisteredEventListener regEL : listeners) {
-                try {
-                    regEL.execute(event);
-                } catch (EventHandlingException ehex) {
-                    log.error(String.format("Exception while passing Event: %s to EventListener: %s (Plugin: %s)", event.getClass().getSimpleName(), regEL.getClass().getSimpleName(), regEL.getPlugin().getName()), ehex.getCause());
+    public final long getAsyncRejectedCount() {
+        return AsyncEventExecutor.getInstance().getRejectedCount();
+    }
+
+    /**
+     * Gets the route for a concrete Event class, resolving it if not yet cached
+     *
+     * @param eventClass the concrete Event class
+     * @param typeId the id assigned to the Event class
+     * @return the route listing the listeners to pass the Event to
+     */
+    private EventRoute route(Class<?> eventClass, int typeId) {
+        EventRoute[] table = routes;
+        if (typeId < table.length && table[typeId] != null) {
+            return table[typeId];
+        }
+        return resolveRoute(eventClass, typeId);
+    }
+
+    private EventRoute resolveRoute(Class<?> eventClass, int typeId) {
+        synchronized (lock) {
+            EventRoute[] table = routes;
+            if (typeId < table.length && table[typeId] != null) {
+                return table[typeId]; // Resolved while we waited
+            }
+            ArrayList<RegisteredEventListener> flattened = new ArrayList<>();
+            for (Class<?> type : listenableTypes.get(eventClass)) {
+                RegisteredEventListener[] registered = regListeners.get(type);
+                if (registered == null) {
+                    continue;
+                }
+                for (RegisteredEventListener regEL : registered) {
+                    if (!regEL.isQuarantined()) {
+                        flattened.add(regEL);
+                    }
+                }
+            }
+            Collections.sort(flattened, new Comparator<RegisteredEventListener>() {
+                @Override
+                public int compare(RegisteredEventListener a, RegisteredEventListener b) {
+                    return Long.compare(a.getOrder(), b.getOrder());
+                }
+            });
+            EventRoute route = EventRoute.build(flattened);
+
+            // Publish through a new table so readers of the volatile field see a fully written entry
+            EventRoute[] updated = Arrays.copyOf(table, Math.max(table.length, Integer.highestOneBit(typeId) << 1));
+            updated[typeId] = route;
+            routes = updated;
+            return route;
+        }
+    }
+
+    /**
+     * Rebuilds the routes after a listener's circuit breaker opened or began probing
+     */
+    final void quarantineChanged() {
+        synchronized (lock) {
+            invalidateRoutes();
+        }
+    }
+
+    /**
+     * Drops every resolved route; must be called holding the lock after changing {@link #regListeners}
+     */
+    private void invalidateRoutes() {
+        routes = new EventRoute[routes.length];
+        interest = rebuildInterest();
+    }
+
+    /**
+     * Works out which Event types have at least one listener; must be called holding the lock
+     */
+    private long[] rebuildInterest() {
+        long[] bits = new long[(nextTypeId.get() >>> 6) + 1];
+        for (Map.Entry<Integer, Class<?>> entry : typeClasses.entrySet()) {
+            if (isListenedFor(entry.getValue())) {
+                int typeId = entry.getKey();
+                bits[typeId >>> 6] |= 1L << typeId;
+            }
+        }
+        return bits;
+    }
+
+    private boolean isListenedFor(Class<?> eventClass) {
+        for (Class<?> type : listenableTypes.get(eventClass)) {
+            RegisteredEventListener[] registered = regListeners.get(type);
+            if (registered == null) {
+                continue;
+            }
+            for (RegisteredEventListener regEL : registered) {
+                if (!regEL.isQuarantined()) {
+                    return true;
                 }
             }
         }
+        return false;
     }
 }
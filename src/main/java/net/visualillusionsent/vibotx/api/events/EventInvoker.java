@@ -0,0 +1,44 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx.api.events;
+
+import net.visualillusionsent.vibotx.VIBotX;
+import org.pircbotx.hooks.Event;
+
+/**
+ * Event Invoker
+ * <p/>
+ * Extended by the classes VIBotX generates for each {@link EventMethod}, which call the method directly.
+ * Plugins have no need to extend it.
+ *
+ * @author Jason (darkdiplomat)
+ */
+public abstract class EventInvoker {
+
+    protected EventInvoker() {
+    }
+
+    /**
+     * Calls the {@link EventMethod} the invoker was generated for
+     *
+     * @param listener the {@link EventListener} owning the method; ignored for static methods
+     * @param event    the Event to pass
+     * @throws Throwable anything the method throws
+     */
+    public abstract void invoke(EventListener listener, Event<VIBotX> event) throws Throwable;
+}
@@ -28,6 +28,8 @@ package net.visualillusionsent.vibotx.api.events;
  *         //Your logic here
  *     }
  * </pre>
+ * The parameter may also be a super type or interface of the events, such as {@code GenericMessageEvent},
+ * to receive every event of that kind.
  *
  * @author Jason (darkdiplomat)
  */
@@ -17,6 +17,8 @@
  */
 package net.visualillusionsent.vibotx.api.events;
 
+import org.pircbotx.hooks.types.GenericEvent;
+
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 
@@ -33,4 +35,41 @@ import static java.lang.annotation.RetentionPolicy.RUNTIME;
 @Retention(RUNTIME)
 @Target(METHOD)
 public @interface EventMethod {
+
+    /**
+     * Whether the method should be invoked on the asynchronous event executor instead of the thread that received the Event.
+     * <p/>
+     * Use for methods that block (network, disk, etc) so they do not delay every other Event.
+     * Asynchronous methods may run concurrently with other listeners and with later Events.
+     */
+    boolean async() default false;
+
+    /**
+     * The channels the method wants Events from, such as {@code "#help"}; empty for every channel.
+     * <p/>
+     * When set, only Events happening in one of the channels are passed to the method.
+     */
+    String[] channels() default {};
+
+    /**
+     * Host masks ({@code nick!login@host}, {@code *} and {@code ?} wildcards) of the users the method wants Events from; empty for every user.
+     * <p/>
+     * When set, only Events caused by a matching user are passed to the method.
+     */
+    String[] users() default {};
+
+    /**
+     * Message prefixes the method wants, such as {@code "!"}; empty for every message.
+     * <p/>
+     * When set, only message Events starting with one of the prefixes are passed to the method.
+     */
+    String[] prefixes() default {};
+
+    /**
+     * The Event types a method taking an {@link EventBatch} wants batches of; empty for every batched type.
+     * <p/>
+     * Only valid on methods whose parameter is {@link EventBatch}.
+     */
+    @SuppressWarnings("rawtypes") // Class literals of the generic PircBotX Events are raw
+    Class<? extends GenericEvent>[] batch() default {};
 }
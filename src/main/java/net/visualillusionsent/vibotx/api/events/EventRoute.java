@@ -0,0 +1,114 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx.api.events;
+
+import net.visualillusionsent.vibotx.VIBotX;
+import org.pircbotx.Channel;
+import org.pircbotx.hooks.Event;
+import org.pircbotx.hooks.types.GenericChannelEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Event Route class
+ * <p/>
+ * The resolved listeners for one concrete Event class. Listeners subscribed to specific channels are
+ * indexed by channel name so an Event only reaches the listeners for its channel plus the listeners
+ * that want every channel.
+ *
+ * @author Jason (darkdiplomat)
+ */
+final class EventRoute {
+    static final EventRoute EMPTY = new EventRoute(new RegisteredEventListener[0], Collections.<String, RegisteredEventListener[]>emptyMap());
+
+    /* Listeners for every channel, including Events with no channel at all */
+    private final RegisteredEventListener[] wildcard;
+    /* Channel name to the wildcard listeners merged with that channel's subscribers, in registration order */
+    private final Map<String, RegisteredEventListener[]> byChannel;
+
+    private EventRoute(RegisteredEventListener[] wildcard, Map<String, RegisteredEventListener[]> byChannel) {
+        this.wildcard = wildcard;
+        this.byChannel = byChannel;
+    }
+
+    /**
+     * Builds the route from listeners already sorted by registration order
+     *
+     * @param ordered the listeners for the Event class
+     * @return the route
+     */
+    static EventRoute build(List<RegisteredEventListener> ordered) {
+        if (ordered.isEmpty()) {
+            return EMPTY;
+        }
+        ArrayList<RegisteredEventListener> wildcard = new ArrayList<>();
+        LinkedHashSet<String> channels = new LinkedHashSet<>();
+        for (RegisteredEventListener listener : ordered) {
+            EventSubscription subscription = listener.getSubscription();
+            if (subscription == null || subscription.getChannels().length == 0) {
+                wildcard.add(listener);
+            } else {
+                Collections.addAll(channels, subscription.getChannels());
+            }
+        }
+        HashMap<String, RegisteredEventListener[]> byChannel = new HashMap<>();
+        for (String channel : channels) {
+            ArrayList<RegisteredEventListener> merged = new ArrayList<>();
+            for (RegisteredEventListener listener : ordered) {
+                EventSubscription subscription = listener.getSubscription();
+                if (subscription == null || subscription.getChannels().length == 0 || contains(subscription.getChannels(), channel)) {
+                    merged.add(listener);
+                }
+            }
+            byChannel.put(channel, merged.toArray(new RegisteredEventListener[merged.size()]));
+        }
+        return new EventRoute(wildcard.toArray(new RegisteredEventListener[wildcard.size()]), byChannel);
+    }
+
+    /**
+     * Gets the listeners an Event should be passed to
+     *
+     * @param event the Event
+     * @return the listeners, in registration order
+     */
+    final RegisteredEventListener[] listenersFor(Event<VIBotX> event) {
+        if (byChannel.isEmpty() || !(event instanceof GenericChannelEvent)) {
+            return wildcard;
+        }
+        Channel channel = ((GenericChannelEvent) event).getChannel();
+        if (channel == null) {
+            return wildcard;
+        }
+        RegisteredEventListener[] subscribed = byChannel.get(EventSubscription.normalizeChannel(channel.getName()));
+        return subscribed != null ? subscribed : wildcard;
+    }
+
+    private static boolean contains(String[] values, String value) {
+        for (String candidate : values) {
+            if (candidate.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx.api.events;
+
+import net.visualillusionsent.vibotx.VIBotX;
+import org.pircbotx.User;
+import org.pircbotx.hooks.Event;
+import org.pircbotx.hooks.types.GenericMessageEvent;
+import org.pircbotx.hooks.types.GenericUserEvent;
+
+import java.util.Locale;
+
+/**
+ * Event Subscription class
+ * <p/>
+ * The channel, user, message prefix and batch type filters declared on an {@link EventMethod}.
+ * Channels are indexed by the {@link EventHandler} routes; the rest are checked per Event.
+ *
+ * @author Jason (darkdiplomat)
+ */
+final class EventSubscription {
+    private final String[] channels;
+    private final String[][] userMasks; // nick, login, host
+    private final String[] prefixes;
+    private final Class<?>[] batchTypes;
+
+    private EventSubscription(String[] channels, String[][] userMasks, String[] prefixes, Class<?>[] batchTypes) {
+        this.channels = channels;
+        this.userMasks = userMasks;
+        this.prefixes = prefixes;
+        this.batchTypes = batchTypes;
+    }
+
+    /**
+     * Compiles the filters of an {@link EventMethod}
+     *
+     * @param eMethod the {@link EventMethod} annotation
+     * @return the subscription; {@code null} if the method wants every Event
+     * @throws EventMethodSignatureException if a user mask is not in nick!login@host form
+     */
+    static EventSubscription of(EventMethod eMethod) throws EventMethodSignatureException {
+        if (eMethod.channels().length == 0 && eMethod.users().length == 0 && eMethod.prefixes().length == 0 && eMethod.batch().length == 0) {
+            return null;
+        }
+        String[] channels = new String[eMethod.channels().length];
+        for (int index = 0; index < channels.length; index++) {
+            channels[index] = normalizeChannel(eMethod.channels()[index]);
+        }
+        String[][] userMasks = new String[eMethod.users().length][];
+        for (int index = 0; index < userMasks.length; index++) {
+            String mask = eMethod.users()[index];
+            int bang = mask.indexOf('!');
+            int at = mask.indexOf('@', bang + 1);
+            if (bang <= 0 || at <= bang) {
+                throw new EventMethodSignatureException("Invalid user mask '" + mask + "', expected nick!login@host");
+            }
+            userMasks[index] = new String[]{mask.substring(0, bang), mask.substring(bang + 1, at), mask.substring(at + 1)};
+        }
+        return new EventSubscription(channels, userMasks, eMethod.prefixes().clone(), eMethod.batch().clone());
+    }
+
+    /**
+     * Normalizes a channel name for the routing index
+     *
+     * @param channel the channel name
+     * @return the lower cased channel name
+     */
+    static String normalizeChannel(String channel) {
+        return channel.toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Gets the normalized channels subscribed to
+     *
+     * @return the channels; empty for every channel
+     */
+    final String[] getChannels() {
+        return channels;
+    }
+
+    /**
+     * Checks an Event against the user and prefix filters
+     *
+     * @param event the Event
+     * @return {@code true} if the Event should be passed on
+     */
+    final boolean accepts(Event<VIBotX> event) {
+        if (userMasks.length > 0) {
+            if (!(event instanceof GenericUserEvent) || !matchesUser(((GenericUserEvent) event).getUser())) {
+                return false;
+            }
+        }
+        if (prefixes.length > 0) {
+            if (!(event instanceof GenericMessageEvent) || !matchesPrefix(((GenericMessageEvent) event).getMessage())) {
+                return false;
+            }
+        }
+        if (batchTypes.length > 0) {
+            if (!(event instanceof EventBatch) || !matchesBatch(((EventBatch) event).getEventType())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matchesUser(User user) {
+        if (user == null) {
+            return false;
+        }
+        for (String[] mask : userMasks) {
+            if (glob(mask[0], user.getNick()) && glob(mask[1], user.getLogin()) && glob(mask[2], user.getHostmask())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matchesBatch(Class<?> eventType) {
+        for (Class<?> batchType : batchTypes) {
+            if (batchType.isAssignableFrom(eventType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matchesPrefix(String message) {
+        if (message == null) {
+            return false;
+        }
+        for (String prefix : prefixes) {
+            if (message.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Case-insensitive wildcard match supporting {@code *} and {@code ?}
+     */
+    private static boolean glob(String pattern, String text) {
+        if (text == null) {
+            return pattern.equals("*");
+        }
+        int pIdx = 0, tIdx = 0, star = -1, mark = 0;
+        while (tIdx < text.length()) {
+            if (pIdx < pattern.length() && (pattern.charAt(pIdx) == '?' || sameChar(pattern.charAt(pIdx), text.charAt(tIdx)))) {
+                pIdx++;
+                tIdx++;
+            } else if (pIdx < pattern.length() && pattern.charAt(pIdx) == '*') {
+                star = pIdx++;
+                mark = tIdx;
+            } else if (star != -1) {
+                pIdx = star + 1;
+                tIdx = ++mark;
+            } else {
+                return false;
+            }
+        }
+        while (pIdx < pattern.length() && pattern.charAt(pIdx) == '*') {
+            pIdx++;
+        }
+        return pIdx == pattern.length();
+    }
+
+    private static boolean sameChar(char a, char b) {
+        return a == b || Character.toLowerCase(a) == Character.toLowerCase(b);
+    }
+}
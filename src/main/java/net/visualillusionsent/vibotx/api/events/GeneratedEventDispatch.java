@@ -0,0 +1,105 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx.api.events;
+
+import net.visualillusionsent.vibotx.VIBotX;
+import org.pircbotx.hooks.Event;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generated Event Dispatch class
+ * <p/>
+ * Dispatches through a class generated for a single {@link EventMethod}, whose body is a direct
+ * {@code invokevirtual} or {@code invokestatic} of the method, so the JIT can inline the listener into
+ * the dispatch. Methods the generated class could not link against, because they or their classes are
+ * not public, fall back to a {@link ReflectiveEventDispatch}.
+ *
+ * @author Jason (darkdiplomat)
+ */
+final class GeneratedEventDispatch extends EventDispatch {
+    private static final String err = "Failed to handle Event: '%s' for Listener: '%s'";
+    private static final String PACKAGE = "net.visualillusionsent.vibotx.api.events.generated.";
+    private static final AtomicInteger generated = new AtomicInteger();
+    private final EventInvoker invoker;
+
+    private GeneratedEventDispatch(EventInvoker invoker) {
+        this.invoker = invoker;
+    }
+
+    /**
+     * Creates the dispatcher for the given {@link EventMethod}
+     *
+     * @param method the {@link EventMethod} annotated method
+     * @return a {@code GeneratedEventDispatch} if the method can be called directly; a {@link ReflectiveEventDispatch} otherwise
+     * @throws EventMethodSignatureException if no dispatcher could be created for the method
+     */
+    static EventDispatch forMethod(Method method) throws EventMethodSignatureException {
+        Class<?> owner = method.getDeclaringClass();
+        ClassLoader loader = owner.getClassLoader();
+        if (!Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(owner.getModifiers()) || owner.isInterface()
+                || !Modifier.isPublic(method.getParameterTypes()[0].getModifiers()) || !sees(loader)) {
+            return ReflectiveEventDispatch.forMethod(method);
+        }
+        String name = PACKAGE + "Invoker" + generated.incrementAndGet() + "$" + owner.getSimpleName() + "$" + method.getName();
+        try {
+            byte[] bytes = InvokerClassWriter.write(name.replace('.', '/'), method);
+            Class<?> invokerClass = new InvokerLoader(loader).define(name, bytes);
+            return new GeneratedEventDispatch((EventInvoker) invokerClass.newInstance());
+        } catch (Throwable thrown) {
+            throw new EventMethodSignatureException("Unable to create dispatcher for Method: " + method.getName() + " in EventListener: " + owner.getName(), thrown);
+        }
+    }
+
+    /* Whether classes defined under the loader link against this EventInvoker */
+    private static boolean sees(ClassLoader loader) {
+        if (loader == null) {
+            return false;
+        }
+        try {
+            return Class.forName(EventInvoker.class.getName(), false, loader) == EventInvoker.class;
+        } catch (ClassNotFoundException cnfex) {
+            return false;
+        }
+    }
+
+    @Override
+    public final void execute(EventListener listener, Event<VIBotX> event) throws EventHandlingException {
+        try {
+            invoker.invoke(listener, event);
+        } catch (Throwable thrown) {
+            throw new EventHandlingException(String.format(err, event.getClass().getSimpleName(), listener.getClass().getName()), thrown);
+        }
+    }
+
+    /**
+     * Defines a single generated invoker as a child of the listener's loader, so it is unloaded along with the plugin
+     */
+    private static final class InvokerLoader extends ClassLoader {
+
+        private InvokerLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        private Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
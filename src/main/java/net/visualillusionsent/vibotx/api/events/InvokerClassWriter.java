@@ -0,0 +1,227 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx.api.events;
+
+import org.pircbotx.hooks.Event;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+
+/**
+ * Invoker Class Writer
+ * <p/>
+ * Writes the class file of an {@link EventInvoker} subclass for one {@link EventMethod}. The class has a no-argument
+ * constructor and an {@code invoke} method that casts its arguments and calls the listener method directly.
+ * Neither method branches, so no stack map frames are needed.
+ *
+ * @author Jason (darkdiplomat)
+ */
+final class InvokerClassWriter {
+    private static final int CLASS_VERSION = 51; // Java 7
+    private static final int ACC_PUBLIC = 0x0001, ACC_FINAL = 0x0010, ACC_SUPER = 0x0020, ACC_SYNTHETIC = 0x1000;
+    private static final int CONSTANT_Utf8 = 1, CONSTANT_Class = 7, CONSTANT_Methodref = 10, CONSTANT_NameAndType = 12;
+    private static final int ALOAD_0 = 0x2a, ALOAD_1 = 0x2b, ALOAD_2 = 0x2c, POP = 0x57, POP2 = 0x58, RETURN = 0xb1;
+    private static final int INVOKEVIRTUAL = 0xb6, INVOKESPECIAL = 0xb7, INVOKESTATIC = 0xb8, CHECKCAST = 0xc0;
+
+    private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream pool = new DataOutputStream(poolBytes);
+    private final HashMap<String, Integer> entries = new HashMap<>();
+    private int poolCount = 1;
+
+    private InvokerClassWriter() {
+    }
+
+    /**
+     * Writes an invoker class
+     *
+     * @param internalName the internal name of the class to write, such as {@code a/b/Invoker1}
+     * @param method       the public method of a public class to call
+     * @return the class file
+     */
+    static byte[] write(String internalName, Method method) throws IOException {
+        return new InvokerClassWriter().writeClass(internalName, method);
+    }
+
+    private byte[] writeClass(String internalName, Method method) throws IOException {
+        int thisClass = classRef(internalName);
+        int superClass = classRef(internalName(EventInvoker.class));
+        int code = utf8("Code");
+
+        // <init>: super();
+        ByteArrayOutputStream init = new ByteArrayOutputStream();
+        init.write(ALOAD_0);
+        init.write(INVOKESPECIAL);
+        writeShort(init, methodRef(superClass, "<init>", "()V"));
+        init.write(RETURN);
+
+        // invoke: ((Owner) listener).method((Param) event); or Owner.method((Param) event);
+        Class<?> owner = method.getDeclaringClass();
+        Class<?> param = method.getParameterTypes()[0];
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        ByteArrayOutputStream invoke = new ByteArrayOutputStream();
+        int ownerClass = classRef(internalName(owner));
+        if (!isStatic) {
+            invoke.write(ALOAD_1);
+            invoke.write(CHECKCAST);
+            writeShort(invoke, ownerClass);
+        }
+        invoke.write(ALOAD_2);
+        invoke.write(CHECKCAST);
+        writeShort(invoke, classRef(internalName(param)));
+        invoke.write(isStatic ? INVOKESTATIC : INVOKEVIRTUAL);
+        writeShort(invoke, methodRef(ownerClass, method.getName(), "(" + descriptor(param) + ")" + descriptor(method.getReturnType())));
+        Class<?> returned = method.getReturnType();
+        if (returned == long.class || returned == double.class) {
+            invoke.write(POP2);
+        } else if (returned != void.class) {
+            invoke.write(POP);
+        }
+        invoke.write(RETURN);
+
+        int initName = utf8("<init>"), initDesc = utf8("()V");
+        int invokeName = utf8("invoke"), invokeDesc = utf8("(" + descriptor(EventListener.class) + descriptor(Event.class) + ")V");
+
+        ByteArrayOutputStream classBytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(classBytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(CLASS_VERSION);
+        pool.flush();
+        out.writeShort(poolCount);
+        poolBytes.writeTo(out);
+        out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC);
+        out.writeShort(thisClass);
+        out.writeShort(superClass);
+        out.writeShort(0); // Interfaces
+        out.writeShort(0); // Fields
+        out.writeShort(2); // Methods
+        writeMethod(out, initName, initDesc, code, 1, 1, init.toByteArray());
+        writeMethod(out, invokeName, invokeDesc, code, 2, 3, invoke.toByteArray());
+        out.writeShort(0); // Attributes
+        out.flush();
+        return classBytes.toByteArray();
+    }
+
+    private static void writeMethod(DataOutputStream out, int name, int descriptor, int code, int maxStack, int maxLocals, byte[] body) throws IOException {
+        out.writeShort(ACC_PUBLIC);
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1);
+        out.writeShort(code);
+        out.writeInt(12 + body.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(body.length);
+        out.write(body);
+        out.writeShort(0); // Exception table
+        out.writeShort(0); // Attributes
+    }
+
+    private int utf8(String value) throws IOException {
+        String key = "U" + value;
+        Integer index = entries.get(key);
+        if (index == null) {
+            pool.writeByte(CONSTANT_Utf8);
+            pool.writeUTF(value);
+            index = add(key);
+        }
+        return index;
+    }
+
+    private int classRef(String internalName) throws IOException {
+        String key = "C" + internalName;
+        Integer index = entries.get(key);
+        if (index == null) {
+            int name = utf8(internalName);
+            pool.writeByte(CONSTANT_Class);
+            pool.writeShort(name);
+            index = add(key);
+        }
+        return index;
+    }
+
+    private int methodRef(int owner, String name, String descriptor) throws IOException {
+        String key = "M" + owner + "." + name + descriptor;
+        Integer index = entries.get(key);
+        if (index == null) {
+            int nameIndex = utf8(name), descIndex = utf8(descriptor);
+            pool.writeByte(CONSTANT_NameAndType);
+            pool.writeShort(nameIndex);
+            pool.writeShort(descIndex);
+            int nameAndType = add("N" + name + descriptor);
+            pool.writeByte(CONSTANT_Methodref);
+            pool.writeShort(owner);
+            pool.writeShort(nameAndType);
+            index = add(key);
+        }
+        return index;
+    }
+
+    private int add(String key) {
+        int index = poolCount++;
+        entries.put(key, index);
+        return index;
+    }
+
+    private static void writeShort(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private static String internalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    private static String descriptor(Class<?> type) {
+        if (type.isArray()) {
+            return internalName(type);
+        }
+        if (!type.isPrimitive()) {
+            return "L" + internalName(type) + ";";
+        }
+        if (type == void.class) {
+            return "V";
+        }
+        if (type == boolean.class) {
+            return "Z";
+        }
+        if (type == byte.class) {
+            return "B";
+        }
+        if (type == char.class) {
+            return "C";
+        }
+        if (type == short.class) {
+            return "S";
+        }
+        if (type == int.class) {
+            return "I";
+        }
+        if (type == long.class) {
+            return "J";
+        }
+        if (type == float.class) {
+            return "F";
+        }
+        return "D";
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx.api.events;
+
+import net.visualillusionsent.vibotx.VIBotX;
+import net.visualillusionsent.vibotx.configuration.BotOpsManager;
+import net.visualillusionsent.vibotx.configuration.ConfigurationManager;
+import org.pircbotx.hooks.Event;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static net.visualillusionsent.vibotx.VIBotX.log;
+
+/**
+ * Listener Circuit Breaker
+ * <p/>
+ * Counts the failed and slow calls of a single listener over a window of calls. Once they reach the
+ * configured percentage of the window the breaker opens: the listener is left out of the dispatch
+ * routes and the bot operators are told. After the cooldown a single probe call is let through; if
+ * it succeeds the breaker closes again, otherwise the listener stays quarantined for another cooldown.
+ * <p/>
+ * Only the first failure of each window is logged with its stack trace, the rest are counted and
+ * summarized so a listener failing on every line does not flood the logs.
+ * <p/>
+ * While closed the window is counted without locking; the monitor is only taken to change state.
+ *
+ * @author Jason (darkdiplomat)
+ */
+final class ListenerCircuitBreaker {
+    private static final int CLOSED = 0, OPEN = 1, HALF_OPEN = 2;
+    /* The window's calls, failures and slow calls are packed into one long, 21 bits each */
+    private static final int COUNT_BITS = 21;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long CALL = 1L, FAILURE = 1L << COUNT_BITS, SLOW = 1L << (COUNT_BITS * 2);
+    private static final ScheduledThreadPoolExecutor probeTimer = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "VIBotX-CircuitBreaker");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final RegisteredEventListener listener;
+    private final int window, tripCount;
+    private final long slowNanos, cooldown;
+    private volatile int state = CLOSED;
+    private boolean probing;
+    private final AtomicLong counts = new AtomicLong();
+    private final AtomicInteger suppressed = new AtomicInteger();
+    private final AtomicBoolean failureLogged = new AtomicBoolean();
+
+    ListenerCircuitBreaker(RegisteredEventListener listener) {
+        this.listener = listener;
+        this.window = Math.max(1, Math.min(ConfigurationManager.getBreakerWindow(), (int) (COUNT_MASK >> 1)));
+        this.tripCount = Math.max(1, (window * ConfigurationManager.getBreakerFailurePercent() + 99) / 100);
+        this.slowNanos = TimeUnit.MILLISECONDS.toNanos(ConfigurationManager.getBreakerSlowCall());
+        this.cooldown = ConfigurationManager.getBreakerCooldown();
+    }
+
+    /**
+     * Checks whether the listener is quarantined and should be left out of the dispatch routes
+     *
+     * @return {@code true} if open
+     */
+    final boolean isOpen() {
+        return state == OPEN;
+    }
+
+    /**
+     * Checks whether a call may be made; while half open only the single probe call is allowed
+     *
+     * @return {@code true} if the listener should be called
+     */
+    final boolean allowCall() {
+        int current = state;
+        if (current == CLOSED) {
+            return true;
+        }
+        if (current == OPEN) {
+            return false; // Passed before the route was rebuilt
+        }
+        synchronized (this) {
+            if (state != HALF_OPEN || probing) {
+                return false;
+            }
+            probing = true;
+            return true;
+        }
+    }
+
+    /**
+     * Records the outcome of a call
+     *
+     * @param event   the Event that was passed
+     * @param elapsed the nanoseconds the call took
+     * @param failed  whether the call threw
+     */
+    final void record(Event<VIBotX> event, long elapsed, boolean failed) {
+        boolean slow = slowNanos > 0 && elapsed >= slowNanos;
+        int current = state;
+        if (current == OPEN) {
+            return; // Passed before the route was rebuilt
+        }
+        if (current == CLOSED) {
+            long delta = CALL | (failed ? FAILURE : 0) | (slow ? SLOW : 0);
+            long before = counts.getAndAdd(delta);
+            long after = before + delta;
+            if (bad(before) < tripCount && bad(after) >= tripCount) {
+                trip(event, after);
+            } else if (calls(after) == window) {
+                rollWindow();
+            }
+            return;
+        }
+        String report;
+        synchronized (this) {
+            if (state != HALF_OPEN) {
+                return;
+            }
+            probing = false;
+            if (failed || slow) {
+                report = open(failed ? "probe call failed" : "probe call took " + TimeUnit.NANOSECONDS.toMillis(elapsed) + "ms");
+            } else {
+                state = CLOSED;
+                counts.set(0);
+                suppressed.set(0);
+                failureLogged.set(false);
+                report = "EventListener " + listener.getName() + " (Plugin: " + listener.getPlugin().getName() + ") recovered and has been restored";
+            }
+        }
+        stateChanged(event, report);
+    }
+
+    /**
+     * Checks whether a failure should be logged in full; later failures in the same window are only counted
+     *
+     * @return {@code true} for the first failure of a window
+     */
+    final boolean logFailure() {
+        if (failureLogged.compareAndSet(false, true)) {
+            return true;
+        }
+        suppressed.incrementAndGet();
+        return false;
+    }
+
+    private void trip(Event<VIBotX> event, long counted) {
+        String report;
+        synchronized (this) {
+            if (state != CLOSED) {
+                return;
+            }
+            report = open(failures(counted) + " failed and " + slowCalls(counted) + " slow of the last " + calls(counted) + " calls");
+        }
+        stateChanged(event, report);
+    }
+
+    private void rollWindow() {
+        int missed = suppressed.getAndSet(0);
+        failureLogged.set(false);
+        if (missed > 0) {
+            log.warning("EventListener " + listener.getName() + " (Plugin: " + listener.getPlugin().getName() + ") failed " + missed + " more times in the last " + window + " calls");
+        }
+        long current;
+        do {
+            current = counts.get();
+        } while (calls(current) >= window && !counts.compareAndSet(current, 0)); // Calls racing the roll start the next window
+    }
+
+    private void stateChanged(Event<VIBotX> event, String report) {
+        log.warning(report);
+        EventHandler.getInstance().quarantineChanged();
+        BotOpsManager.noticeOperators(event.getBot(), report);
+    }
+
+    /* Must be called holding the monitor; the failure that tripped the breaker stays logged (or suppressed) as it was */
+    private String open(String reason) {
+        state = OPEN;
+        String report = "EventListener " + listener.getName() + " (Plugin: " + listener.getPlugin().getName() + ") quarantined for " + TimeUnit.MILLISECONDS.toSeconds(cooldown) + "s: " + reason;
+        int missed = suppressed.getAndSet(0);
+        if (missed > 0) {
+            report += " (" + missed + " failures not logged)";
+        }
+        counts.set(0);
+        probeTimer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                halfOpen();
+            }
+        }, cooldown, TimeUnit.MILLISECONDS);
+        return report;
+    }
+
+    private void halfOpen() {
+        synchronized (this) {
+            if (state != OPEN) {
+                return;
+            }
+            state = HALF_OPEN;
+            probing = false;
+        }
+        EventHandler.getInstance().quarantineChanged(); // Put the listener back in the routes so it can be probed
+    }
+
+    private static int calls(long counts) {
+        return (int) (counts & COUNT_MASK);
+    }
+
+    private static int failures(long counts) {
+        return (int) ((counts >>> COUNT_BITS) & COUNT_MASK);
+    }
+
+    private static int slowCalls(long counts) {
+        return (int) ((counts >>> (COUNT_BITS * 2)) & COUNT_MASK);
+    }
+
+    private static int bad(long counts) {
+        return failures(counts) + slowCalls(counts);
+    }
+}
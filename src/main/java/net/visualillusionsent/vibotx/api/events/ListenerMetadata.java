@@ -0,0 +1,136 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx.api.events;
+
+import org.pircbotx.hooks.types.GenericEvent;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+
+/**
+ * Listener Metadata
+ * <p/>
+ * The validated {@link EventMethod}s of an {@link EventListener} class, scanned once per class and
+ * shared by every instance registered. Methods found through both {@link Class#getMethods()} and
+ * {@link Class#getDeclaredMethods()} are deduplicated by signature so each is registered once. The
+ * cache is held in a {@link ClassValue}, so it goes away with the class and its plugin's class loader.
+ *
+ * @author Jason (darkdiplomat)
+ */
+final class ListenerMetadata {
+    private static final ClassValue<ListenerMetadata> cache = new ClassValue<ListenerMetadata>() {
+        @Override
+        protected ListenerMetadata computeValue(Class<?> type) {
+            try {
+                return new ListenerMetadata(scan(type), null);
+            } catch (EventMethodSignatureException emsex) {
+                return new ListenerMetadata(null, emsex);
+            }
+        }
+    };
+
+    private final Entry[] entries;
+    private final EventMethodSignatureException failure;
+
+    private ListenerMetadata(Entry[] entries, EventMethodSignatureException failure) {
+        this.entries = entries;
+        this.failure = failure;
+    }
+
+    /**
+     * Gets the validated listening methods of a listener class
+     *
+     * @param type
+     *         the {@link EventListener} class
+     *
+     * @return the listening methods, in the order they were found
+     *
+     * @throws EventMethodSignatureException
+     *         if any {@link EventMethod} of the class is invalid
+     */
+    static Entry[] of(Class<? extends EventListener> type) throws EventMethodSignatureException {
+        ListenerMetadata metadata = cache.get(type);
+        if (metadata.failure != null) {
+            throw new EventMethodSignatureException(metadata.failure.getMessage(), metadata.failure.getCause());
+        }
+        return metadata.entries;
+    }
+
+    private static Entry[] scan(Class<?> type) throws EventMethodSignatureException {
+        LinkedHashMap<String, Method> unique = new LinkedHashMap<>();
+        for (Method method : type.getMethods()) {
+            unique.put(signature(method), method);
+        }
+        for (Method method : type.getDeclaredMethods()) {
+            String signature = signature(method);
+            if (!unique.containsKey(signature)) {
+                unique.put(signature, method);
+            }
+        }
+
+        ArrayList<Entry> entries = new ArrayList<>();
+        for (Method method : unique.values()) {
+            // Check if the method is a hook handling method
+            EventMethod eMethod = method.getAnnotation(EventMethod.class);
+            if (eMethod == null || method.isBridge()) {
+                continue; // Next, not one of our things
+            }
+            // Check the parameters for number and type and decide if it's one
+            // that is really a handler method
+            Class<?>[] parameters = method.getParameterTypes();
+            if (parameters.length > 1 || parameters.length == 0) {
+                throw new EventMethodSignatureException("Invalid number of parameters for Method: " + method.getName() + " in EventListener: " + type.getName());
+            }
+            Class<?> eventClass = parameters[0];
+            if (!GenericEvent.class.isAssignableFrom(eventClass)) {
+                throw new EventMethodSignatureException("GenericEvent.class is not assignable from " + eventClass.getName());
+            }
+            if (eMethod.batch().length > 0 && eventClass != EventBatch.class) {
+                throw new EventMethodSignatureException("EventMethod batch types set on Method: " + method.getName() + " which does not take an EventBatch in EventListener: " + type.getName());
+            }
+            String name = type.getSimpleName() + "#" + method.getName();
+            entries.add(new Entry(eventClass, name, GeneratedEventDispatch.forMethod(method), EventSubscription.of(eMethod), eMethod.async()));
+        }
+        return entries.toArray(new Entry[entries.size()]);
+    }
+
+    private static String signature(Method method) {
+        return method.getName() + Arrays.toString(method.getParameterTypes());
+    }
+
+    /**
+     * A single validated listening method
+     */
+    static final class Entry {
+        final Class<?> eventClass;
+        final String name;
+        final EventDispatch dispatch;
+        final EventSubscription subscription;
+        final boolean async;
+
+        private Entry(Class<?> eventClass, String name, EventDispatch dispatch, EventSubscription subscription, boolean async) {
+            this.eventClass = eventClass;
+            this.name = name;
+            this.dispatch = dispatch;
+            this.subscription = subscription;
+            this.async = async;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx.api.events;
+
+import net.visualillusionsent.vibotx.configuration.ConfigurationManager;
+
+import java.util.Iterator;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static net.visualillusionsent.vibotx.VIBotX.log;
+
+/**
+ * Listener Watchdog
+ * <p/>
+ * Every thread that runs listeners publishes what it is running into its own {@link InFlight} slot.
+ * A daemon thread periodically scans the slots and logs the plugin, listener, and a stack sample of
+ * any invocation that has run longer than the configured budget.
+ *
+ * @author Jason (darkdiplomat)
+ */
+final class ListenerWatchdog {
+    private static final int STACK_DEPTH = 12;
+    private final long budgetNanos;
+    private final CopyOnWriteArrayList<InFlight> slots = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<InFlight> current = new ThreadLocal<InFlight>() {
+        @Override
+        protected InFlight initialValue() {
+            InFlight slot = new InFlight(Thread.currentThread());
+            slots.add(slot);
+            return slot;
+        }
+    };
+
+    private ListenerWatchdog(long budgetMillis) {
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        if (budgetNanos > 0) {
+            final long period = Math.max(50L, budgetMillis / 2);
+            Thread scanner = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    while (true) {
+                        try {
+                            Thread.sleep(period);
+                        } catch (InterruptedException iex) {
+                            return;
+                        }
+                        scan();
+                    }
+                }
+            }, "VIBotX-ListenerWatchdog");
+            scanner.setDaemon(true);
+            scanner.start();
+        }
+    }
+
+    /**
+     * Marks the current thread as running a listener
+     *
+     * @param listener the listener about to run
+     * @param typeId   the Event type id being passed
+     * @param start    the {@link System#nanoTime()} the invocation started
+     * @return the slot to hand back to {@link #end(InFlight)}; {@code null} if the watchdog is disabled
+     */
+    final InFlight begin(RegisteredEventListener listener, int typeId, long start) {
+        if (budgetNanos <= 0) {
+            return null;
+        }
+        InFlight slot = current.get();
+        slot.typeId = typeId;
+        slot.start = start;
+        slot.listener = listener; // Written last; a non-null listener marks the slot as running
+        return slot;
+    }
+
+    final void end(InFlight slot) {
+        if (slot != null) {
+            slot.listener = null;
+        }
+    }
+
+    private void scan() {
+        long now = System.nanoTime();
+        Iterator<InFlight> slotIterator = slots.iterator();
+        while (slotIterator.hasNext()) {
+            InFlight slot = slotIterator.next();
+            if (!slot.thread.isAlive()) {
+                slots.remove(slot);
+                continue;
+            }
+            RegisteredEventListener listener = slot.listener;
+            long start = slot.start;
+            if (listener == null || now - start < budgetNanos || slot.reported == start) {
+                continue;
+            }
+            slot.reported = start; // Only report each overrun once
+            StringBuilder report = new StringBuilder();
+            report.append("Listener ").append(listener.getName())
+                    .append(" (Plugin: ").append(listener.getPlugin().getName())
+                    .append(") has been handling ").append(EventHandler.getInstance().getEventTypeName(slot.typeId))
+                    .append(" for ").append(TimeUnit.NANOSECONDS.toMillis(now - start))
+                    .append("ms on ").append(slot.thread.getName());
+            StackTraceElement[] stack = slot.thread.getStackTrace();
+            for (int frame = 0; frame < stack.length && frame < STACK_DEPTH; frame++) {
+                report.append("\n\tat ").append(stack[frame]);
+            }
+            log.warning(report.toString());
+        }
+    }
+
+    /**
+     * What a single thread is currently running
+     */
+    static final class InFlight {
+        private final Thread thread;
+        private volatile RegisteredEventListener listener;
+        private volatile long start;
+        private volatile int typeId;
+        private long reported = -1; // Only touched by the scanner
+
+        private InFlight(Thread thread) {
+            this.thread = thread;
+        }
+    }
+
+    /* Initialization on Demand Holder idiom, deferred until the configuration has been read */
+    private static class ListenerWatchdogHolder {
+        public static final ListenerWatchdog INSTANCE = new ListenerWatchdog(ConfigurationManager.getListenerBudget());
+    }
+
+    static ListenerWatchdog getInstance() {
+        return ListenerWatchdogHolder.INSTANCE;
+    }
+    /* END */
+}
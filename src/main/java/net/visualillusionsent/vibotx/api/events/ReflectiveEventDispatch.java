@@ -0,0 +1,69 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx.api.events;
+
+import net.visualillusionsent.vibotx.VIBotX;
+import org.pircbotx.hooks.Event;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Reflective Event Dispatch class
+ * <p/>
+ * Calls an {@link EventMethod} through {@link Method#invoke}, with the access check suppressed once at
+ * registration. Used for methods a {@link GeneratedEventDispatch} cannot call directly, such as non-public ones;
+ * a {@link java.lang.invoke.MethodHandle} held in a field measured slower than this on current JVMs.
+ *
+ * @author Jason (darkdiplomat)
+ */
+final class ReflectiveEventDispatch extends EventDispatch {
+    private static final String err = "Failed to handle Event: '%s' for Listener: '%s'";
+    private final Method method;
+
+    private ReflectiveEventDispatch(Method method) {
+        this.method = method;
+    }
+
+    /**
+     * Creates a new {@code ReflectiveEventDispatch} for the given {@link EventMethod}
+     *
+     * @param method the {@link EventMethod} annotated method
+     * @return the dispatcher for the method
+     * @throws EventMethodSignatureException if the method could not be made accessible
+     */
+    static ReflectiveEventDispatch forMethod(Method method) throws EventMethodSignatureException {
+        try {
+            method.setAccessible(true);
+        } catch (SecurityException sex) {
+            throw new EventMethodSignatureException("Unable to create dispatcher for Method: " + method.getName() + " in EventListener: " + method.getDeclaringClass().getName(), sex);
+        }
+        return new ReflectiveEventDispatch(method);
+    }
+
+    @Override
+    public final void execute(EventListener listener, Event<VIBotX> event) throws EventHandlingException {
+        try {
+            method.invoke(listener, event);
+        } catch (InvocationTargetException itex) {
+            throw new EventHandlingException(String.format(err, event.getClass().getSimpleName(), listener.getClass().getName()), itex.getCause());
+        } catch (Exception ex) {
+            throw new EventHandlingException(String.format(err, event.getClass().getSimpleName(), listener.getClass().getName()), ex);
+        }
+    }
+}
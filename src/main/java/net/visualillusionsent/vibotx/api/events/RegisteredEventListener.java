@@ -26,22 +26,42 @@ package net.visualillusionsent.vibotx.api.events;
 
 import net.visualillusionsent.vibotx.VIBotX;
 import net.visualillusionsent.vibotx.api.plugin.Plugin;
+import net.visualillusionsent.vibotx.api.plugin.PluginMailbox;
+import net.visualillusionsent.vibotx.configuration.ConfigurationManager;
+import net.visualillusionsent.vibotx.logging.LatencyHistogram;
 import org.pircbotx.hooks.Event;
 
+import java.util.Arrays;
+
 /**
  * Registered Event Listener class
  *
  * @author Jason (darkdiplomat)
  */
 final class RegisteredEventListener {
+    private static final LatencyHistogram[] NO_HISTOGRAMS = new LatencyHistogram[0];
     private final EventListener listener;
+    private final String name;
     private final Plugin plugin;
     private final EventDispatch dispatch;
+    private final long order;
+    private final boolean async;
+    private final PluginMailbox mailbox;
+    private final EventSubscription subscription;
+    private final ListenerCircuitBreaker breaker;
+    /* Dispatch latency indexed by Event type id */
+    private volatile LatencyHistogram[] histograms = NO_HISTOGRAMS;
 
-    RegisteredEventListener(Plugin plugin, EventListener listener, EventDispatch dispatch) {
+    RegisteredEventListener(Plugin plugin, EventListener listener, String name, EventDispatch dispatch, long order, boolean async, PluginMailbox mailbox, EventSubscription subscription) {
         this.plugin = plugin;
         this.listener = listener;
+        this.name = name;
         this.dispatch = dispatch;
+        this.order = order;
+        this.async = async;
+        this.mailbox = mailbox;
+        this.subscription = subscription;
+        this.breaker = ConfigurationManager.useListenerBreaker() ? new ListenerCircuitBreaker(this) : null;
     }
 
     public final Plugin getPlugin() {
@@ -52,11 +72,141 @@ final class RegisteredEventListener {
         return listener;
     }
 
+    /**
+     * Gets the name of the listening method, as ClassName#methodName
+     *
+     * @return the listener name
+     */
+    public final String getName() {
+        return name;
+    }
+
     public final EventDispatch getDispatch() {
         return dispatch;
     }
 
-    public final void execute(Event<VIBotX> event) throws EventHandlingException {
-        dispatch.execute(listener, event);
+    /**
+     * Gets the registration order of this listener, used to order listeners across Event types
+     *
+     * @return the registration order
+     */
+    public final long getOrder() {
+        return order;
+    }
+
+    /**
+     * Gets whether this listener runs on the asynchronous event executor
+     *
+     * @return {@code true} if asynchronous; {@code false} if called on the delivering thread
+     */
+    public final boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Gets the {@link PluginMailbox} this listener is delivered through
+     *
+     * @return the mailbox; {@code null} if called directly
+     */
+    public final PluginMailbox getMailbox() {
+        return mailbox;
+    }
+
+    /**
+     * Gets the channel, user and prefix filters of this listener
+     *
+     * @return the subscription; {@code null} if the listener wants every Event
+     */
+    final EventSubscription getSubscription() {
+        return subscription;
+    }
+
+    /**
+     * Checks the user and prefix filters of this listener
+     *
+     * @param event the Event about to be passed
+     * @return {@code true} if the listener wants the Event
+     */
+    final boolean accepts(Event<VIBotX> event) {
+        return subscription == null || subscription.accepts(event);
+    }
+
+    /**
+     * Gets the circuit breaker guarding this listener
+     *
+     * @return the breaker; {@code null} if circuit breaking is disabled
+     */
+    final ListenerCircuitBreaker getBreaker() {
+        return breaker;
+    }
+
+    /**
+     * Checks whether this listener has been quarantined by its circuit breaker
+     *
+     * @return {@code true} if the listener should be left out of the dispatch routes
+     */
+    final boolean isQuarantined() {
+        return breaker != null && breaker.isOpen();
+    }
+
+    /**
+     * Passes the Event to the listener, recording how long it took
+     *
+     * @param event  the Event
+     * @param typeId the Event type id the timing is recorded against
+     * @throws EventHandlingException if the listener failed
+     */
+    public final void execute(Event<VIBotX> event, int typeId) throws EventHandlingException {
+        long start = System.nanoTime();
+        ListenerWatchdog.InFlight inFlight = ListenerWatchdog.getInstance().begin(this, typeId, start);
+        boolean failed = true;
+        try {
+            dispatch.execute(listener, event);
+            failed = false;
+        } finally {
+            ListenerWatchdog.getInstance().end(inFlight);
+            long elapsed = System.nanoTime() - start;
+            histogramFor(typeId).record(elapsed);
+            if (breaker != null) {
+                breaker.record(event, elapsed, failed);
+            }
+        }
+    }
+
+    /**
+     * Gets the dispatch latency recorded for an Event type
+     *
+     * @param typeId the Event type id
+     * @return the histogram; {@code null} if no such Event has been passed to this listener
+     */
+    final LatencyHistogram getHistogram(int typeId) {
+        LatencyHistogram[] current = histograms;
+        return typeId < current.length ? current[typeId] : null;
+    }
+
+    /**
+     * Gets the number of Event type ids that may have a histogram
+     *
+     * @return the histogram table length
+     */
+    final int getHistogramCount() {
+        return histograms.length;
+    }
+
+    private LatencyHistogram histogramFor(int typeId) {
+        LatencyHistogram[] current = histograms;
+        if (typeId < current.length && current[typeId] != null) {
+            return current[typeId];
+        }
+        synchronized (this) {
+            current = histograms;
+            if (typeId < current.length && current[typeId] != null) {
+                return current[typeId];
+            }
+            LatencyHistogram[] updated = Arrays.copyOf(current, Math.max(current.length, typeId + 1));
+            updated[typeId] = new LatencyHistogram();
+            histograms = updated;
+            return updated[typeId];
+        }
     }
 }
@@ -44,6 +44,7 @@ public abstract class JavaPlugin implements Plugin {
     private VILogger logger;
     private PropertiesFile plugin_cfg;
     private ProgramChecker pChecker;
+    private final PluginMailbox mailbox = new PluginMailbox(this);
 
     public JavaPlugin() {
         configureProgramChecker();
@@ -125,6 +126,15 @@ public abstract class JavaPlugin implements Plugin {
         EventHandler.getInstance().registerListener(listener, this);
     }
 
+    /**
+     * Gets the {@link PluginMailbox} that serializes this {@code Plugin}'s Events and Commands when mailboxes are enabled
+     *
+     * @return the {@code Plugin}'s mailbox
+     */
+    public final PluginMailbox getMailbox() {
+        return mailbox;
+    }
+
     /**
      * Gets the path to the {@code Plugin}'s configuration, taking into account the specified universe
      *
@@ -204,6 +214,7 @@ public abstract class JavaPlugin implements Plugin {
 
     final void flagDisabled() {
         this.disabled = true;
+        mailbox.clear();
         disable();
     }
     /* END Internal Plugin Handling Methods */
@@ -28,6 +28,7 @@ import net.visualillusionsent.utils.JarUtils;
 import net.visualillusionsent.utils.PropertiesFile;
 import net.visualillusionsent.vibotx.CommandParser;
 import net.visualillusionsent.vibotx.VIBotX;
+import net.visualillusionsent.vibotx.api.command.CommandCache;
 import net.visualillusionsent.vibotx.api.events.EventHandler;
 import org.pircbotx.Colors;
 
@@ -259,6 +260,7 @@ public final class JavaPluginLoader {
             CommandParser.getInstance().removePluginCommands(plugin);
             EventHandler.getInstance().unregisterPluginListeners(plugin);
         }
+        CommandCache.getInstance().invalidate(); // Cached help and plugin lists are out of date
         return enabled;
     }
 
@@ -309,6 +311,7 @@ public final class JavaPluginLoader {
         CommandParser.getInstance().removePluginCommands(plugin); // Clear out commands
         EventHandler.getInstance().unregisterPluginListeners(plugin); // Clear out events
         plugin.getPluginLogger().close(); // Shut down plugin's logger removing the lock on the file.
+        CommandCache.getInstance().invalidate(); // Cached help and plugin lists are out of date
 
         log.info("Disabled " + plugin.getName() + ", Version " + plugin.getVersion());
         return true;
@@ -0,0 +1,152 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx.api.plugin;
+
+import net.visualillusionsent.vibotx.configuration.ConfigurationManager;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static net.visualillusionsent.vibotx.VIBotX.log;
+
+/**
+ * Plugin Mailbox
+ * <p/>
+ * Runs the Events and Commands delivered to a single {@link JavaPlugin} one at a time and in order,
+ * while the mailboxes of different plugins are drained concurrently by a shared pool of worker threads.
+ * A plugin that falls behind only backs up its own mailbox.
+ *
+ * @author Jason (darkdiplomat)
+ */
+public final class PluginMailbox {
+    /**
+     * Tasks run per turn on a worker before the mailbox yields the thread to other plugins
+     */
+    private static final int BATCH = 64;
+
+    private final JavaPlugin plugin;
+    private final ConcurrentLinkedQueue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Runnable drainer = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    PluginMailbox(JavaPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Queues a task to run after every task queued before it
+     *
+     * @param task the task to run
+     * @return {@code true} if queued; {@code false} if the mailbox is full and the task was dropped
+     */
+    public final boolean execute(Runnable task) {
+        if (depth.incrementAndGet() > ConfigurationManager.getPluginMailboxLimit()) {
+            depth.decrementAndGet();
+            long count = dropped.incrementAndGet();
+            if (count == 1 || count % 1000 == 0) { // Don't let a stuck plugin flood the log as well
+                log.warning("Mailbox for Plugin: " + plugin.getName() + " is full, dropped " + count + " task(s) so far");
+            }
+            return false;
+        }
+        queue.offer(task);
+        schedule();
+        return true;
+    }
+
+    /**
+     * Gets the number of tasks waiting in the mailbox
+     *
+     * @return the mailbox depth
+     */
+    public final int getDepth() {
+        return depth.get();
+    }
+
+    /**
+     * Gets the number of tasks dropped because the mailbox was full
+     *
+     * @return the dropped task count
+     */
+    public final long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Discards any waiting tasks, used when the plugin is disabled
+     */
+    final void clear() {
+        while (queue.poll() != null) {
+            depth.decrementAndGet();
+        }
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            WorkerPoolHolder.INSTANCE.execute(drainer);
+        }
+    }
+
+    private void drain() {
+        try {
+            for (int run = 0; run < BATCH; run++) {
+                Runnable task = queue.poll();
+                if (task == null) {
+                    break;
+                }
+                depth.decrementAndGet();
+                try {
+                    task.run();
+                } catch (Throwable thrown) {
+                    log.error("Exception in mailbox task for Plugin: " + plugin.getName(), thrown);
+                }
+            }
+        } finally {
+            scheduled.set(false);
+            if (!queue.isEmpty()) {
+                schedule(); // More arrived or we hit the batch limit, go around again
+            }
+        }
+    }
+
+    /* Initialization on Demand Holder idiom, deferred until the configuration has been read */
+    private static class WorkerPoolHolder {
+        public static final ExecutorService INSTANCE = Executors.newFixedThreadPool(ConfigurationManager.getPluginMailboxThreads(), new ThreadFactory() {
+            private final AtomicInteger threadNum = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable task) {
+                Thread thread = new Thread(task, "VIBotX-PluginWorker-" + threadNum.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+    /* END */
+}
@@ -20,6 +20,7 @@ package net.visualillusionsent.vibotx.command;
 import net.visualillusionsent.vibotx.VIBotX;
 import net.visualillusionsent.vibotx.api.command.BaseCommand;
 import net.visualillusionsent.vibotx.api.command.BotCommand;
+import net.visualillusionsent.vibotx.api.command.CommandConcurrency;
 import net.visualillusionsent.vibotx.api.command.CommandCreationException;
 import net.visualillusionsent.vibotx.api.command.CommandEvent;
 import net.visualillusionsent.vibotx.api.plugin.JavaPluginLoader;
@@ -41,7 +42,8 @@ import net.visualillusionsent.vibotx.api.plugin.JavaPluginLoader;
         desc = "Enables a plugin",
         minParam = 1,
         maxParam = 1,
-        botOp = true
+        botOp = true,
+        concurrency = CommandConcurrency.GLOBAL
 )
 public final class EnablePluginCommand extends BaseCommand {
     boolean showStack = true; // TODO: add configuration for this
@@ -0,0 +1,108 @@
+/*
+ * This file is part of VIBotX.
+ *
+ * Copyright © 2012-2014 Visual Illusions Entertainment
+ *
+ * VIBotX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.vibotx.command;
+
+import net.visualillusionsent.vibotx.VIBotX;
+import net.visualillusionsent.vibotx.api.command.BaseCommand;
+import net.visualillusionsent.vibotx.api.command.BotCommand;
+import net.visualillusionsent.vibotx.api.command.CommandConcurrency;
+import net.visualillusionsent.vibotx.api.command.CommandCreationException;
+import net.visualillusionsent.vibotx.api.command.CommandEvent;
+import net.visualillusionsent.vibotx.api.events.EventHandler;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+
+/**
+ * Event Statistics Command<br>
+ * Reports the event pipeline, channel lanes and the slowest {@link net.visualillusionsent.vibotx.api.events.EventListener}s, or dumps every listener's statistics to event-stats.txt<br>
+ * <b>Usage:</b> .eventstats [plugin|dump]<br>
+ * <b>Minimum Params:</b> 0<br>
+ * <b>Maximum Params:</b> 1<br>
+ * <b>Requires:</b> Bot Operator<br/>
+ *
+ * @author Jason (darkdiplomat)
+ */
+@BotCommand(
+        main = "eventstats",
+        prefix = '.',
+        desc = "Gives event listener latency statistics",
+        usage = ".eventstats [plugin|dump]",
+        maxParam = 1,
+        botOp = true,
+        concurrency = CommandConcurrency.CONCURRENT
+)
+public final class EventStatsCommand extends BaseCommand {
+    private static final int TOP = 5;
+
+    /**
+     * Constructs a new {@code EventStatsCommand}
+     */
+    public EventStatsCommand(VIBotX viBotX) throws CommandCreationException {
+        super(viBotX);
+    }
+
+    @Override
+    public final boolean execute(CommandEvent event) {
+        EventHandler handler = EventHandler.getInstance();
+        String summary = String.format("Async queue=%d active=%d completed=%d rejected=%d", handler.getAsyncQueueDepth(), handler.getAsyncActiveCount(), handler.getAsyncCompletedCount(), handler.getAsyncRejectedCount());
+        String pipeline = VIBotX.getEventPipelineStatistics();
+        String lanes = VIBotX.getChannelLaneStatistics();
+
+        if (event.getArgumentCount() > 0 && event.getArgument(0).equalsIgnoreCase("dump")) {
+            File dump = new File(VIBotX.getUniverse(), "event-stats.txt");
+            try (PrintWriter writer = new PrintWriter(new FileWriter(dump))) {
+                writer.println(summary);
+                if (pipeline != null) {
+                    writer.println(pipeline);
+                }
+                if (lanes != null) {
+                    writer.println(lanes);
+                }
+                for (String row : handler.getListenerStatistics(null)) {
+                    writer.println(row);
+                }
+            } catch (IOException ioex) {
+                VIBotX.log.error("Failed to write event statistics", ioex);
+                event.respondNoticeToUser("Failed to write event statistics: ".concat(ioex.getMessage()));
+                return true;
+            }
+            event.respondNoticeToUser("Event statistics written to ".concat(dump.getAbsolutePath()));
+            return true;
+        }
+
+        List<String> rows = handler.getListenerStatistics(event.getArgumentCount() > 0 ? event.getArgument(0) : null);
+        event.respondNoticeToUser(summary);
+        if (pipeline != null) {
+            event.respondNoticeToUser(pipeline);
+        }
+        if (lanes != null) {
+            event.respondNoticeToUser(lanes);
+        }
+        if (rows.isEmpty()) {
+            event.respondNoticeToUser("No listener statistics recorded");
+        }
+        for (int index = 0; index < rows.size() && index < TOP; index++) {
+            event.respondNoticeToUser(rows.get(index));
+        }
+        return true;
+    }
+}
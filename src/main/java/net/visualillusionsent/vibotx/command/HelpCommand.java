@@ -21,6 +21,7 @@ import net.visualillusionsent.vibotx.CommandParser;
 import net.visualillusionsent.vibotx.VIBotX;
 import net.visualillusionsent.vibotx.api.command.BaseCommand;
 import net.visualillusionsent.vibotx.api.command.BotCommand;
+import net.visualillusionsent.vibotx.api.command.CommandConcurrency;
 import net.visualillusionsent.vibotx.api.command.CommandCreationException;
 import net.visualillusionsent.vibotx.api.command.CommandEvent;
 
@@ -40,7 +41,10 @@ import net.visualillusionsent.vibotx.api.command.CommandEvent;
         usage = ".help",
         maxParam = 1,
         desc = "Displays a list of commands and their usage",
-        privateAllowed = false
+        privateAllowed = false,
+        cost = 3,
+        cacheTtl = 60000,
+        concurrency = CommandConcurrency.CONCURRENT
 )
 public final class HelpCommand extends BaseCommand {
 
@@ -61,7 +65,7 @@ public final class HelpCommand extends BaseCommand {
                 // no change
             }
         }
-        CommandParser.printHelp(event.getChannel(), event.getUser(), pageStart);
+        CommandParser.printHelp(event, pageStart);
         return true;
     }
 }
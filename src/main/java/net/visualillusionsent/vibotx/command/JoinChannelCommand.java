@@ -69,9 +69,9 @@ public final class JoinChannelCommand extends BaseCommand {
     }
 
     @Override
-    public final synchronized boolean execute(CommandEvent event) {
+    public final boolean execute(CommandEvent event) {
         event.getUser().send().notice("Attempting to join Channel: '" + event.getArguments()[0] + "'");
-        if (event.getArguments().length > 1) {
+        if (event.getArgumentCount() > 1) {
             event.getBot().sendIRC().joinChannel(event.getArgument(0), event.getArguments()[1]);
         }
         else {
@@ -20,6 +20,7 @@ package net.visualillusionsent.vibotx.command;
 import net.visualillusionsent.vibotx.VIBotX;
 import net.visualillusionsent.vibotx.api.command.BaseCommand;
 import net.visualillusionsent.vibotx.api.command.BotCommand;
+import net.visualillusionsent.vibotx.api.command.CommandConcurrency;
 import net.visualillusionsent.vibotx.api.command.CommandCreationException;
 import net.visualillusionsent.vibotx.api.command.CommandEvent;
 
@@ -40,7 +41,9 @@ import net.visualillusionsent.vibotx.api.command.CommandEvent;
         usage = ".listplugins",
         desc = "Gives a list of plugins",
         maxParam = 0,
-        botOp = true
+        botOp = true,
+        cacheTtl = 60000,
+        concurrency = CommandConcurrency.CONCURRENT
 )
 public final class ListPluginsCommand extends BaseCommand {
 
@@ -53,7 +56,7 @@ public final class ListPluginsCommand extends BaseCommand {
 
     @Override
     public final boolean execute(CommandEvent event) {
-        event.getUser().send().notice(VIBotX.jpload().getReadablePluginList());
+        event.respondNoticeToUser(VIBotX.jpload().getReadablePluginList());
         return true;
     }
 
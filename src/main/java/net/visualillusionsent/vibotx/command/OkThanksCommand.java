@@ -53,7 +53,7 @@ public final class OkThanksCommand extends BaseCommand {
     }
 
     @Override
-    public final synchronized boolean execute(CommandEvent event) {
+    public final boolean execute(CommandEvent event) {
         MuteTracker.unmuteBotIn(event.getChannel());
         return true;
     }
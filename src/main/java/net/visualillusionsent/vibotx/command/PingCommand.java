@@ -22,6 +22,7 @@ import net.visualillusionsent.utils.UtilityException;
 import net.visualillusionsent.vibotx.VIBotX;
 import net.visualillusionsent.vibotx.api.command.BaseCommand;
 import net.visualillusionsent.vibotx.api.command.BotCommand;
+import net.visualillusionsent.vibotx.api.command.CommandConcurrency;
 import net.visualillusionsent.vibotx.api.command.CommandCreationException;
 import net.visualillusionsent.vibotx.api.command.CommandEvent;
 import org.pircbotx.Channel;
@@ -41,7 +42,8 @@ import org.pircbotx.User;
         main = "ping",
         usage = "!ping",
         maxParam = 0,
-        desc = "Sends a Pong"
+        desc = "Sends a Pong",
+        concurrency = CommandConcurrency.CONCURRENT
 )
 public final class PingCommand extends BaseCommand {
 
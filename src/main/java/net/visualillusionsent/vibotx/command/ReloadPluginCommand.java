@@ -20,6 +20,7 @@ package net.visualillusionsent.vibotx.command;
 import net.visualillusionsent.vibotx.VIBotX;
 import net.visualillusionsent.vibotx.api.command.BaseCommand;
 import net.visualillusionsent.vibotx.api.command.BotCommand;
+import net.visualillusionsent.vibotx.api.command.CommandConcurrency;
 import net.visualillusionsent.vibotx.api.command.CommandCreationException;
 import net.visualillusionsent.vibotx.api.command.CommandEvent;
 import net.visualillusionsent.vibotx.api.plugin.JavaPluginLoader;
@@ -41,7 +42,8 @@ import net.visualillusionsent.vibotx.api.plugin.JavaPluginLoader;
         minParam = 1,
         maxParam = 1,
         desc = "Reloads a plugin",
-        botOp = true
+        botOp = true,
+        concurrency = CommandConcurrency.GLOBAL
 )
 public final class ReloadPluginCommand extends BaseCommand {
     boolean showStack = true; // TODO: add configuration for this
@@ -54,7 +56,7 @@ public final class ReloadPluginCommand extends BaseCommand {
     }
 
     @Override
-    public final synchronized boolean execute(CommandEvent event) {
+    public final boolean execute(CommandEvent event) {
         JavaPluginLoader load = VIBotX.jpload();
 
         if (load.reloadPlugin(event.getArgument(0))) {
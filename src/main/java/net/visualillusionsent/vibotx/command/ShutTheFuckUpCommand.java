@@ -53,7 +53,7 @@ public final class ShutTheFuckUpCommand extends BaseCommand {
     }
 
     @Override
-    public final synchronized boolean execute(CommandEvent event) {
+    public final boolean execute(CommandEvent event) {
         MuteTracker.muteBotIn(event.getChannel());
         return true;
     }
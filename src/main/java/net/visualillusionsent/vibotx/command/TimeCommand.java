@@ -38,6 +38,7 @@ import net.visualillusionsent.utils.DateUtils;
 import net.visualillusionsent.vibotx.VIBotX;
 import net.visualillusionsent.vibotx.api.command.BaseCommand;
 import net.visualillusionsent.vibotx.api.command.BotCommand;
+import net.visualillusionsent.vibotx.api.command.CommandConcurrency;
 import net.visualillusionsent.vibotx.api.command.CommandCreationException;
 import net.visualillusionsent.vibotx.api.command.CommandEvent;
 import org.pircbotx.Channel;
@@ -58,7 +59,8 @@ import java.util.TimeZone;
         main = "time",
         usage = "!time [TimeZone]",
         desc = "Shows the current time",
-        maxParam = 1
+        maxParam = 1,
+        concurrency = CommandConcurrency.CONCURRENT
 )
 public final class TimeCommand extends BaseCommand {
     public TimeCommand(VIBotX viBotX) throws CommandCreationException {
@@ -66,7 +68,7 @@ public final class TimeCommand extends BaseCommand {
     }
 
     @Override
-    public final synchronized boolean execute(CommandEvent event) {
+    public final boolean execute(CommandEvent event) {
         long current = System.currentTimeMillis();
         Channel channel = event.getChannel();
         if (event.hasArguments()) {
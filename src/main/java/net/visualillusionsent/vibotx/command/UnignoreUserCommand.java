@@ -54,7 +54,7 @@ public final class UnignoreUserCommand extends BaseCommand {
     }
 
     @Override
-    public final synchronized boolean execute(CommandEvent event) {
+    public final boolean execute(CommandEvent event) {
         if (event.getBot().getUserChannelDao().userExists(event.getArgument(0))) {
             User ignore = event.getBot().getUserChannelDao().getUser(event.getArgument(0));
             if (event.getChannel().getUsers().contains(ignore)) {
@@ -20,6 +20,7 @@ package net.visualillusionsent.vibotx.command;
 import net.visualillusionsent.vibotx.VIBotX;
 import net.visualillusionsent.vibotx.api.command.BaseCommand;
 import net.visualillusionsent.vibotx.api.command.BotCommand;
+import net.visualillusionsent.vibotx.api.command.CommandConcurrency;
 import net.visualillusionsent.vibotx.api.command.CommandCreationException;
 import net.visualillusionsent.vibotx.api.command.CommandEvent;
 import org.pircbotx.Colors;
@@ -45,7 +46,10 @@ import java.util.List;
         usage = "!version",
         desc = "Checks the version of the VIBotX or specified plugin",
         maxParam = 0,
-        op = true
+        op = true,
+        cost = 3,
+        cacheTtl = 300000,
+        concurrency = CommandConcurrency.CONCURRENT
 )
 public final class VersionCheckCommand extends BaseCommand {
     private final List<String> about;
@@ -50,6 +50,13 @@ final class BotOperator {
         return false;
     }
 
+    /**
+     * Same as {@link #equals(Object)} against a {@code BotOperator} of the given parts, without creating one
+     */
+    final boolean matches(String nick, String login, String host) {
+        return (this.nick.equals(nick) || hasStar(this.nick, nick)) && (this.login.equals(login) || hasStar(this.login, login)) && (this.host.equals(host) || hasStar(this.host, host));
+    }
+
     private boolean hasStar(String a, String b) {
         return a.equals("*") || b.equals("*");
     }
@@ -34,10 +34,14 @@ import static net.visualillusionsent.vibotx.VIBotX.log;
  * @author Jason (darkdiplomat)
  */
 public final class BotOpsManager {
-    private static final ArrayList<BotOperator> operators = new ArrayList<>();
+    private static volatile BotOperator[] operators = new BotOperator[0];
+    private static volatile int generation;
+    private static File opsFile;
+    private static long opsModified; // Guarded by the class
+    private static volatile long opsChecked; // Read before locking so most commands skip the monitor
 
     private static void loadOps(File universe) {
-        File opsFile = new File(universe, "bot-ops.txt");
+        opsFile = new File(universe, "bot-ops.txt");
         if (!opsFile.exists()) {
             try {
                 FileUtils.cloneFileFromJar(JarUtils.getJarPath(VIBotX.class), "resources/example.ops", opsFile.getAbsolutePath());
@@ -46,12 +50,18 @@ public final class BotOpsManager {
             }
         }
 
+        readOps();
+    }
+
+    private static synchronized void readOps() {
+        opsModified = opsFile.lastModified();
         Scanner scan;
         try {
             scan = new Scanner(opsFile);
         } catch (FileNotFoundException e) {
             return; // Well...
         }
+        ArrayList<BotOperator> read = new ArrayList<>();
 
         int linenum = 0;
         while (scan.hasNext()) {
@@ -61,11 +71,44 @@ public final class BotOpsManager {
                 continue;
             }
             try {
-                operators.add(new BotOperator(line));
+                read.add(new BotOperator(line));
             } catch (RuntimeException rex) {
                 log.warning("Invalid HostMask in bot-ops.txt @ line: " + linenum);
             }
         }
+        scan.close();
+        operators = read.toArray(new BotOperator[read.size()]);
+        generation++;
+    }
+
+    /**
+     * Reads bot-ops.txt again if it has been modified, checking at most once a second
+     */
+    public static void reloadIfChanged() {
+        long now = System.currentTimeMillis();
+        if (now - opsChecked < 1000) {
+            return;
+        }
+        synchronized (BotOpsManager.class) {
+            if (opsFile == null || now - opsChecked < 1000) {
+                return; // Checked while we waited
+            }
+            opsChecked = now;
+            if (opsFile.lastModified() != opsModified) {
+                log.info("bot-ops.txt changed, reloading Bot Operators");
+                readOps();
+            }
+        }
+    }
+
+    /**
+     * Gets a number that changes every time the Bot Operators are read, so anything remembering
+     * {@link #isBotOp(User)} results knows to forget them
+     *
+     * @return the generation of the Bot Operator list
+     */
+    public static int getGeneration() {
+        return generation;
     }
 
     static void touch(File universe) {
@@ -73,6 +116,28 @@ public final class BotOpsManager {
     }
 
     public static boolean isBotOp(User user) {
-        return operators.contains(new BotOperator(user.getNick(), user.getLogin(), user.getHostmask()));
+        String nick = user.getNick(), login = user.getLogin(), host = user.getHostmask();
+        for (BotOperator operator : operators) {
+            if (operator.matches(nick, login, host)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sends a notice to every Bot Operator the bot can currently see
+     *
+     * @param bot
+     *         the bot to send through
+     * @param message
+     *         the notice to send
+     */
+    public static void noticeOperators(VIBotX bot, String message) {
+        for (User user : bot.getUserChannelDao().getAllUsers()) {
+            if (isBotOp(user)) {
+                user.send().notice(message);
+            }
+        }
     }
 }
@@ -36,6 +36,31 @@ import java.nio.charset.Charset;
  */
 public final class ConfigurationManager {
     private static boolean ghostNick;
+    private static int asyncEventThreads = 4, asyncEventQueue = 1024;
+    private static boolean pluginMailboxes;
+    private static int pluginMailboxThreads = Runtime.getRuntime().availableProcessors(), pluginMailboxLimit = 1000;
+    private static boolean eventPipeline;
+    private static int eventPipelineCapacity = 4096;
+    private static String eventPipelineOverflow = "block";
+    private static int eventLanes = 1, eventLaneCapacity = 1024;
+    private static long listenerBudget = 500;
+    private static boolean listenerBreaker;
+    private static int breakerWindow = 20, breakerFailurePercent = 50;
+    private static long breakerSlowCall = 2000, breakerCooldown = 60000;
+    private static boolean eventBatching;
+    private static long eventBatchWindow = 250;
+    private static int eventBatchSize = 500;
+    private static boolean eventJournal;
+    private static long eventJournalSegmentSize = 16777216;
+    private static boolean commandAbbreviations;
+    private static boolean commandWorkers;
+    private static int commandWorkerThreads = 4, commandWorkerQueue = 256;
+    private static long commandTimeout = 30000;
+    private static boolean commandThrottle;
+    private static int throttleUserBurst = 5, throttleChannelBurst = 15, throttleCommandBurst = 30;
+    private static int commandCacheSize = 256;
+    private static long permissionCacheTtl = 10000;
+    private static long throttleUserPeriod = 3000, throttleChannelPeriod = 1000, throttleCommandPeriod = 500, throttleIdle = 600000;
 
     private ConfigurationManager() {
     }
@@ -45,6 +70,42 @@ public final class ConfigurationManager {
         PropertiesFile cfg = new PropertiesFile(universe.getAbsolutePath().concat("/vibotx.cfg"));
 
         ghostNick = cfg.getBoolean("ghost.nick");
+        asyncEventThreads = Math.max(1, cfg.getInt("async.event.threads", asyncEventThreads));
+        asyncEventQueue = Math.max(1, cfg.getInt("async.event.queue", asyncEventQueue));
+        pluginMailboxes = cfg.getBoolean("plugin.mailboxes", pluginMailboxes);
+        pluginMailboxThreads = Math.max(1, cfg.getInt("plugin.mailbox.threads", pluginMailboxThreads));
+        pluginMailboxLimit = Math.max(1, cfg.getInt("plugin.mailbox.limit", pluginMailboxLimit));
+        eventPipeline = cfg.getBoolean("event.pipeline", eventPipeline);
+        eventPipelineCapacity = Math.max(2, cfg.getInt("event.pipeline.capacity", eventPipelineCapacity));
+        eventPipelineOverflow = cfg.getString("event.pipeline.overflow", eventPipelineOverflow);
+        eventLanes = Math.max(1, cfg.getInt("event.lanes", eventLanes));
+        eventLaneCapacity = Math.max(1, cfg.getInt("event.lanes.capacity", eventLaneCapacity));
+        listenerBudget = Math.max(0L, cfg.getLong("event.watchdog.budget", listenerBudget));
+        listenerBreaker = cfg.getBoolean("event.breaker", listenerBreaker);
+        breakerWindow = Math.max(1, cfg.getInt("event.breaker.window", breakerWindow));
+        breakerFailurePercent = Math.min(100, Math.max(1, cfg.getInt("event.breaker.failures", breakerFailurePercent)));
+        breakerSlowCall = Math.max(0L, cfg.getLong("event.breaker.slow", breakerSlowCall));
+        breakerCooldown = Math.max(1000L, cfg.getLong("event.breaker.cooldown", breakerCooldown));
+        eventBatching = cfg.getBoolean("event.batch", eventBatching);
+        eventBatchWindow = Math.max(1L, cfg.getLong("event.batch.window", eventBatchWindow));
+        eventBatchSize = Math.max(1, cfg.getInt("event.batch.size", eventBatchSize));
+        eventJournal = cfg.getBoolean("event.journal", eventJournal);
+        eventJournalSegmentSize = Math.max(4096L, cfg.getLong("event.journal.segment", eventJournalSegmentSize));
+        commandAbbreviations = cfg.getBoolean("command.abbreviations", commandAbbreviations);
+        commandWorkers = cfg.getBoolean("command.workers", commandWorkers);
+        commandWorkerThreads = Math.max(1, cfg.getInt("command.worker.threads", commandWorkerThreads));
+        commandWorkerQueue = Math.max(1, cfg.getInt("command.worker.queue", commandWorkerQueue));
+        commandTimeout = cfg.getLong("command.timeout", commandTimeout);
+        commandThrottle = cfg.getBoolean("command.throttle", commandThrottle);
+        throttleUserBurst = cfg.getInt("command.throttle.user.burst", throttleUserBurst);
+        throttleUserPeriod = cfg.getLong("command.throttle.user.period", throttleUserPeriod);
+        throttleChannelBurst = cfg.getInt("command.throttle.channel.burst", throttleChannelBurst);
+        throttleChannelPeriod = cfg.getLong("command.throttle.channel.period", throttleChannelPeriod);
+        throttleCommandBurst = cfg.getInt("command.throttle.command.burst", throttleCommandBurst);
+        throttleCommandPeriod = cfg.getLong("command.throttle.command.period", throttleCommandPeriod);
+        throttleIdle = Math.max(1000L, cfg.getLong("command.throttle.idle", throttleIdle));
+        commandCacheSize = Math.max(1, cfg.getInt("command.cache.size", commandCacheSize));
+        permissionCacheTtl = cfg.getLong("command.permission.ttl", permissionCacheTtl);
 
         cfgbuild.setServer(cfg.getString("server.hostname"), cfg.getInt("server.port"))
                 .setServerPassword(emptyToNull(cfg.getString("server.password")))
@@ -93,4 +154,148 @@ public final class ConfigurationManager {
     public static boolean shouldGhostNick() {
         return ghostNick;
     }
+
+    public static int getAsyncEventThreads() {
+        return asyncEventThreads;
+    }
+
+    public static int getAsyncEventQueue() {
+        return asyncEventQueue;
+    }
+
+    public static boolean usePluginMailboxes() {
+        return pluginMailboxes;
+    }
+
+    public static int getPluginMailboxThreads() {
+        return pluginMailboxThreads;
+    }
+
+    public static int getPluginMailboxLimit() {
+        return pluginMailboxLimit;
+    }
+
+    public static boolean useEventPipeline() {
+        return eventPipeline;
+    }
+
+    public static int getEventPipelineCapacity() {
+        return eventPipelineCapacity;
+    }
+
+    public static String getEventPipelineOverflow() {
+        return eventPipelineOverflow;
+    }
+
+    public static int getEventLanes() {
+        return eventLanes;
+    }
+
+    public static int getEventLaneCapacity() {
+        return eventLaneCapacity;
+    }
+
+    public static long getListenerBudget() {
+        return listenerBudget;
+    }
+
+    public static boolean useListenerBreaker() {
+        return listenerBreaker;
+    }
+
+    public static int getBreakerWindow() {
+        return breakerWindow;
+    }
+
+    public static int getBreakerFailurePercent() {
+        return breakerFailurePercent;
+    }
+
+    public static long getBreakerSlowCall() {
+        return breakerSlowCall;
+    }
+
+    public static long getBreakerCooldown() {
+        return breakerCooldown;
+    }
+
+    public static boolean useEventBatching() {
+        return eventBatching;
+    }
+
+    public static long getEventBatchWindow() {
+        return eventBatchWindow;
+    }
+
+    public static int getEventBatchSize() {
+        return eventBatchSize;
+    }
+
+    public static boolean useEventJournal() {
+        return eventJournal;
+    }
+
+    public static long getEventJournalSegmentSize() {
+        return eventJournalSegmentSize;
+    }
+
+    public static boolean useCommandAbbreviations() {
+        return commandAbbreviations;
+    }
+
+    public static boolean useCommandWorkers() {
+        return commandWorkers;
+    }
+
+    public static int getCommandWorkerThreads() {
+        return commandWorkerThreads;
+    }
+
+    public static int getCommandWorkerQueue() {
+        return commandWorkerQueue;
+    }
+
+    public static long getCommandTimeout() {
+        return commandTimeout;
+    }
+
+    public static boolean useCommandThrottle() {
+        return commandThrottle;
+    }
+
+    public static int getThrottleUserBurst() {
+        return throttleUserBurst;
+    }
+
+    public static long getThrottleUserPeriod() {
+        return throttleUserPeriod;
+    }
+
+    public static int getThrottleChannelBurst() {
+        return throttleChannelBurst;
+    }
+
+    public static long getThrottleChannelPeriod() {
+        return throttleChannelPeriod;
+    }
+
+    public static int getThrottleCommandBurst() {
+        return throttleCommandBurst;
+    }
+
+    public static long getThrottleCommandPeriod() {
+        return throttleCommandPeriod;
+    }
+
+    public static long getThrottleIdle() {
+        return throttleIdle;
+    }
+
+    public static int getCommandCacheSize() {
+        return commandCacheSize;
+    }
+
+    public static long getPermissionCacheTtl() {
+        return permissionCacheTtl;
+    }
 }
@@ -17,11 +17,14 @@
  */
 package net.visualillusionsent.vibotx.logging;
 
+import java.util.ArrayList;
+
 /**
  * @author Jason (darkdiplomat)
  */
 public class Level extends java.util.logging.Level {
     private static int intVal = 800;
+    private static final ArrayList<Level> custom = new ArrayList<>();
 
     /* VIBotX custom logging levels */
     public static final Level DEBUG = new Level("DEBUG", -1);
@@ -42,11 +45,29 @@ public class Level extends java.util.logging.Level {
     public static final Level PING = new Level("PING");
     public static final Level PRIVATEMESSAGE = new Level("PRIVATEMESSAGE");
 
+    /* Position of this Level in the enabled mask of VILogger */
+    final int bit;
+
     protected Level(String name) {
-        super(name, ++intVal);
+        this(name, ++intVal);
     }
 
     protected Level(String name, int value) {
         super(name, value);
+        synchronized (custom) {
+            bit = custom.size();
+            custom.add(this);
+        }
+    }
+
+    /**
+     * Gets every VIBotX custom Level created so far
+     *
+     * @return the custom Levels in creation order
+     */
+    static Level[] customLevels() {
+        synchronized (custom) {
+            return custom.toArray(new Level[custom.size()]);
+        }
     }
 }
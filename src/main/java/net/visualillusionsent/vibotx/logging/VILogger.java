@@ -35,6 +35,13 @@ public final class VILogger extends Logger {
     /* VIBotX Logging Levels Enabled Configuration */
     private static final UnmodifiablePropertiesFile log_levels_enabled;
 
+    /* The java.util.logging Levels, masked after the custom Levels */
+    private static final Level[] STANDARD = new Level[]{ SEVERE, WARNING, INFO, CONFIG, FINE, FINER, FINEST };
+
+    /* Enabled flags of every Level, read once from log_levels.cfg so checks are a single bit test */
+    private static final long enabled_mask;
+    private static final int custom_count;
+
     static {
         File log_props = new File(VIBotX.getUniverse(), "log_levels.cfg");
         if (!log_props.exists()) {
@@ -45,6 +52,21 @@ public final class VILogger extends Logger {
             }
         }
         log_levels_enabled = new UnmodifiablePropertiesFile(VIBotX.getUniverse().getAbsolutePath().concat("/log_levels.cfg"));
+
+        net.visualillusionsent.vibotx.logging.Level[] custom = net.visualillusionsent.vibotx.logging.Level.customLevels();
+        custom_count = Math.min(custom.length, 64 - STANDARD.length);
+        long mask = 0;
+        for (int index = 0; index < custom_count; index++) {
+            if (readLevelEnabled(custom[index])) {
+                mask |= 1L << index;
+            }
+        }
+        for (int index = 0; index < STANDARD.length; index++) {
+            if (readLevelEnabled(STANDARD[index])) {
+                mask |= 1L << (custom_count + index);
+            }
+        }
+        enabled_mask = mask;
     }
 
     public VILogger(String name) {
@@ -294,7 +316,38 @@ public final class VILogger extends Logger {
         }
     }
 
+    /**
+     * Checks whether a Level is enabled in log_levels.cfg
+     * <p/>
+     * The configuration is read once; callers building expensive messages should check this first
+     * so nothing is formatted for a disabled Level.
+     *
+     * @param level
+     *         the Level to check
+     *
+     * @return {@code true} if messages of the Level are logged
+     */
+    public final boolean isEnabled(Level level) {
+        return checkLevelEnabled(level);
+    }
+
     private boolean checkLevelEnabled(Level level) {
+        if (level instanceof net.visualillusionsent.vibotx.logging.Level) {
+            int bit = ((net.visualillusionsent.vibotx.logging.Level) level).bit;
+            if (bit < custom_count) {
+                return (enabled_mask & (1L << bit)) != 0;
+            }
+        } else {
+            for (int index = 0; index < STANDARD.length; index++) {
+                if (STANDARD[index] == level) {
+                    return (enabled_mask & (1L << (custom_count + index))) != 0;
+                }
+            }
+        }
+        return readLevelEnabled(level); // Not a Level known when the mask was built
+    }
+
+    private static boolean readLevelEnabled(Level level) {
         try {
             return log_levels_enabled.getBoolean(level.getName().toLowerCase().concat(".enabled"));
         } catch (UtilityException uex) {